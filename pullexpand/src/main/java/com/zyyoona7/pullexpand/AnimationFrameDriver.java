@@ -0,0 +1,88 @@
+package com.zyyoona7.pullexpand;
+
+import android.support.annotation.NonNull;
+
+/**
+ * 动画帧驱动，动画进行中每帧回调一次，空闲时不调度任何帧
+ */
+class AnimationFrameDriver {
+
+    /**
+     * 帧回调
+     */
+    interface Callback {
+
+        /**
+         * 执行一帧动画
+         *
+         * @param frameTimeMillis 这一帧开始的时间，ms
+         * @return 是否还需要下一帧
+         */
+        boolean onAnimationFrame(long frameTimeMillis);
+    }
+
+    private final Callback mCallback;
+    private FrameScheduler mFrameScheduler;
+    //是否已经调度了下一帧
+    private boolean mIsFramePosted = false;
+
+    private final FrameScheduler.FrameCallback mFrameCallback = new FrameScheduler.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeMillis) {
+            mIsFramePosted = false;
+            if (mCallback.onAnimationFrame(frameTimeMillis)) {
+                postFrame();
+            }
+        }
+    };
+
+    AnimationFrameDriver(@NonNull FrameScheduler frameScheduler, @NonNull Callback callback) {
+        mFrameScheduler = frameScheduler;
+        mCallback = callback;
+    }
+
+    /**
+     * 开始驱动，已经在驱动时不会重复调度
+     */
+    void start() {
+        if (!mIsFramePosted) {
+            postFrame();
+        }
+    }
+
+    /**
+     * 停止驱动，移除已经调度的帧
+     */
+    void stop() {
+        if (mIsFramePosted) {
+            mIsFramePosted = false;
+            mFrameScheduler.removeFrameCallback(mFrameCallback);
+        }
+    }
+
+    /**
+     * @return 是否已经调度了下一帧
+     */
+    boolean isRunning() {
+        return mIsFramePosted;
+    }
+
+    /**
+     * 替换帧调度器，正在驱动时会转移到新的调度器
+     *
+     * @param frameScheduler 帧调度器
+     */
+    void setFrameScheduler(@NonNull FrameScheduler frameScheduler) {
+        boolean isRunning = mIsFramePosted;
+        stop();
+        mFrameScheduler = frameScheduler;
+        if (isRunning) {
+            postFrame();
+        }
+    }
+
+    private void postFrame() {
+        mIsFramePosted = true;
+        mFrameScheduler.postFrameCallback(mFrameCallback);
+    }
+}
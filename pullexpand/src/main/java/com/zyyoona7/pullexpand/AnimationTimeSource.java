@@ -0,0 +1,24 @@
+package com.zyyoona7.pullexpand;
+
+import android.view.animation.AnimationUtils;
+
+/**
+ * 动画时间源，测试时可以替换成手动推进的时间
+ */
+interface AnimationTimeSource {
+
+    /**
+     * 默认时间源，与属性动画和 Scroller 使用同一个时钟
+     */
+    AnimationTimeSource DEFAULT = new AnimationTimeSource() {
+        @Override
+        public long currentTimeMillis() {
+            return AnimationUtils.currentAnimationTimeMillis();
+        }
+    };
+
+    /**
+     * @return 当前动画时间，ms
+     */
+    long currentTimeMillis();
+}
@@ -0,0 +1,174 @@
+package com.zyyoona7.pullexpand;
+
+import android.support.v4.view.ViewCompat;
+import android.view.MotionEvent;
+
+/**
+ * 布局方向上的坐标轴，在初始化和 {@link HeaderFooterLayout#setOrientation(int)} 时选定，
+ * 拖动、动画和回调时直接调用，不需要每次判断布局方向
+ * 只有垂直和水平两个实现，调用点是双态（bimorphic）的，JIT 可以内联两个实现，但不是单态调用
+ */
+abstract class Axis {
+
+    static final Axis VERTICAL = new VerticalAxis();
+    static final Axis HORIZONTAL = new HorizontalAxis();
+
+    /**
+     * 获取布局方向对应的坐标轴
+     *
+     * @param orientation 布局方向
+     * @return 坐标轴
+     */
+    static Axis of(int orientation) {
+        return orientation == HeaderFooterLayout.HORIZONTAL ? HORIZONTAL : VERTICAL;
+    }
+
+    /**
+     * 选取坐标轴上的分量
+     *
+     * @param x x 分量
+     * @param y y 分量
+     * @return 坐标轴上的分量
+     */
+    abstract int select(int x, int y);
+
+    /**
+     * 选取坐标轴上的分量
+     *
+     * @param x x 分量
+     * @param y y 分量
+     * @return 坐标轴上的分量
+     */
+    abstract float select(float x, float y);
+
+    /**
+     * 坐标轴上的值对应的 x 分量，另一个坐标轴返回 0
+     *
+     * @param value 坐标轴上的值
+     * @return x 分量
+     */
+    abstract int toX(int value);
+
+    /**
+     * 坐标轴上的值对应的 y 分量，另一个坐标轴返回 0
+     *
+     * @param value 坐标轴上的值
+     * @return y 分量
+     */
+    abstract int toY(int value);
+
+    /**
+     * @return {x, y} 数组中坐标轴对应的下标
+     */
+    abstract int getIndex();
+
+    /**
+     * @return 嵌套滑动的坐标轴 ViewCompat.SCROLL_AXIS_XXX
+     */
+    abstract int getNestedScrollAxis();
+
+    /**
+     * 获取手指在坐标轴上的位置
+     *
+     * @param event        MotionEvent
+     * @param pointerIndex pointer index
+     * @return 坐标轴上的位置
+     */
+    abstract float getPosition(MotionEvent event, int pointerIndex);
+
+    /**
+     * 获取手指在坐标轴上的历史位置
+     *
+     * @param event        MotionEvent
+     * @param pointerIndex pointer index
+     * @param pos          历史采样点下标
+     * @return 坐标轴上的历史位置
+     */
+    abstract float getHistoricalPosition(MotionEvent event, int pointerIndex, int pos);
+
+    private static final class VerticalAxis extends Axis {
+
+        @Override
+        int select(int x, int y) {
+            return y;
+        }
+
+        @Override
+        float select(float x, float y) {
+            return y;
+        }
+
+        @Override
+        int toX(int value) {
+            return 0;
+        }
+
+        @Override
+        int toY(int value) {
+            return value;
+        }
+
+        @Override
+        int getIndex() {
+            return 1;
+        }
+
+        @Override
+        int getNestedScrollAxis() {
+            return ViewCompat.SCROLL_AXIS_VERTICAL;
+        }
+
+        @Override
+        float getPosition(MotionEvent event, int pointerIndex) {
+            return event.getY(pointerIndex);
+        }
+
+        @Override
+        float getHistoricalPosition(MotionEvent event, int pointerIndex, int pos) {
+            return event.getHistoricalY(pointerIndex, pos);
+        }
+    }
+
+    private static final class HorizontalAxis extends Axis {
+
+        @Override
+        int select(int x, int y) {
+            return x;
+        }
+
+        @Override
+        float select(float x, float y) {
+            return x;
+        }
+
+        @Override
+        int toX(int value) {
+            return value;
+        }
+
+        @Override
+        int toY(int value) {
+            return 0;
+        }
+
+        @Override
+        int getIndex() {
+            return 0;
+        }
+
+        @Override
+        int getNestedScrollAxis() {
+            return ViewCompat.SCROLL_AXIS_HORIZONTAL;
+        }
+
+        @Override
+        float getPosition(MotionEvent event, int pointerIndex) {
+            return event.getX(pointerIndex);
+        }
+
+        @Override
+        float getHistoricalPosition(MotionEvent event, int pointerIndex, int pos) {
+            return event.getHistoricalX(pointerIndex, pos);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.zyyoona7.pullexpand;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.LayoutRes;
+import android.support.annotation.NonNull;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 在后台线程加载布局，结果在主线程回调，类似 AsyncLayoutInflater 但不需要额外的依赖
+ * 所有 PullExpandLayout 共用一个低优先级线程；布局中有不能在后台线程创建的 View 时回到主线程重新加载
+ */
+final class BackgroundInflater {
+
+    private static final Executor EXECUTOR = createExecutor();
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    interface Callback {
+
+        /**
+         * 加载完成，在主线程回调
+         *
+         * @param view     加载出来的 View，还没有添加到 parent
+         * @param layoutId 布局id
+         */
+        void onInflateFinished(@NonNull View view, @LayoutRes int layoutId);
+    }
+
+    private BackgroundInflater() {
+    }
+
+    /**
+     * 在后台线程加载布局
+     *
+     * @param inflater LayoutInflater
+     * @param layoutId 布局id
+     * @param parent   用来生成 LayoutParams，不会添加到 parent
+     * @param callback 主线程回调
+     */
+    static void inflate(@NonNull LayoutInflater inflater, @LayoutRes final int layoutId,
+                        @NonNull final ViewGroup parent, @NonNull final Callback callback) {
+        //LayoutInflater 不是线程安全的，后台线程使用单独的实例
+        final LayoutInflater backgroundInflater = inflater.cloneInContext(inflater.getContext());
+        EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                View view = null;
+                try {
+                    view = backgroundInflater.inflate(layoutId, parent, false);
+                } catch (RuntimeException e) {
+                    //比如创建了 Handler 的 View，交给主线程重新加载
+                }
+                final View inflatedView = view;
+                MAIN_HANDLER.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        View result = inflatedView != null ? inflatedView
+                                : backgroundInflater.inflate(layoutId, parent, false);
+                        callback.onInflateFinished(result, layoutId);
+                    }
+                });
+            }
+        });
+    }
+
+    private static Executor createExecutor() {
+        return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "PullExpandLayout-inflater");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+}
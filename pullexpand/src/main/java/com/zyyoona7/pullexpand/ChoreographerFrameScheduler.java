@@ -0,0 +1,94 @@
+package com.zyyoona7.pullexpand;
+
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.RequiresApi;
+import android.support.v4.view.ViewCompat;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+
+/**
+ * 基于 Choreographer 的帧调度器，每个 vsync 最多执行一次回调，与 View 的绘制流程无关
+ * API 16 以下没有 Choreographer，通过 View#postOnAnimation 兼容
+ * 只支持同时调度一个回调，由 {@link AnimationFrameDriver} 持有
+ */
+class ChoreographerFrameScheduler implements FrameScheduler {
+
+    private final View mView;
+    private ChoreographerImpl mChoreographerImpl;
+    //API 16 以下通过 postOnAnimation 执行的回调
+    private FrameCallback mCompatFrame;
+    private final Runnable mCompatRunnable = new Runnable() {
+        @Override
+        public void run() {
+            FrameCallback frame = mCompatFrame;
+            mCompatFrame = null;
+            if (frame != null) {
+                frame.doFrame(AnimationUtils.currentAnimationTimeMillis());
+            }
+        }
+    };
+
+    ChoreographerFrameScheduler(@NonNull View view) {
+        mView = view;
+    }
+
+    @Override
+    public void postFrameCallback(@NonNull FrameCallback frame) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (mChoreographerImpl == null) {
+                mChoreographerImpl = new ChoreographerImpl();
+            }
+            mChoreographerImpl.postFrameCallback(frame);
+        } else {
+            mView.removeCallbacks(mCompatRunnable);
+            mCompatFrame = frame;
+            ViewCompat.postOnAnimation(mView, mCompatRunnable);
+        }
+    }
+
+    @Override
+    public void removeFrameCallback(@NonNull FrameCallback frame) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (mChoreographerImpl != null) {
+                mChoreographerImpl.removeFrameCallback();
+            }
+        } else {
+            mView.removeCallbacks(mCompatRunnable);
+            mCompatFrame = null;
+        }
+    }
+
+    @RequiresApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class ChoreographerImpl implements Choreographer.FrameCallback {
+
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+        private FrameCallback mFrame;
+
+        void postFrameCallback(FrameCallback frame) {
+            if (mFrame != null) {
+                mChoreographer.removeFrameCallback(this);
+            }
+            mFrame = frame;
+            mChoreographer.postFrameCallback(this);
+        }
+
+        void removeFrameCallback() {
+            if (mFrame != null) {
+                mChoreographer.removeFrameCallback(this);
+                mFrame = null;
+            }
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            FrameCallback frame = mFrame;
+            mFrame = null;
+            if (frame != null) {
+                //frameTimeNanos 是 vsync 的时间，与 System#nanoTime 同一个时钟
+                frame.doFrame(frameTimeNanos / 1000000);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.zyyoona7.pullexpand;
+
+import android.support.annotation.NonNull;
+
+/**
+ * 帧调度器，在下一帧执行回调，测试时可以替换成手动驱动的实现
+ */
+interface FrameScheduler {
+
+    /**
+     * 帧回调
+     */
+    interface FrameCallback {
+
+        /**
+         * 执行一帧
+         *
+         * @param frameTimeMillis 这一帧开始的时间，与 SystemClock#uptimeMillis 同一个时钟，ms
+         */
+        void doFrame(long frameTimeMillis);
+    }
+
+    /**
+     * 在下一帧执行回调，同一个回调在执行前重复调用只会执行一次
+     *
+     * @param frame 帧回调
+     */
+    void postFrameCallback(@NonNull FrameCallback frame);
+
+    /**
+     * 移除还没有执行的帧回调
+     *
+     * @param frame 帧回调
+     */
+    void removeFrameCallback(@NonNull FrameCallback frame);
+}
@@ -0,0 +1,104 @@
+package com.zyyoona7.pullexpand;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.view.MotionEvent;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 手势记录器，把 PullExpandLayout#dispatchTouchEvent 收到的事件序列化成紧凑的二进制格式，由单元测试中的 GestureReplayer 回放
+ * 格式（大端）：
+ * 文件头：int MAGIC, byte VERSION, byte orientation, int width, int height
+ * 尺寸记录：byte RECORD_SIZE, int time, int width, int height
+ * 事件记录：byte RECORD_MOTION, int action, int downTime, byte pointerCount, short historySize,
+ * pointerCount 个 byte pointerId，historySize + 1 个采样点（int eventTime，pointerCount 组 float x, float y）
+ * 时间都是相对于开始记录时刻的毫秒数（SystemClock.uptimeMillis，与 MotionEvent 的时间一致），坐标是 PullExpandLayout 中的坐标
+ */
+final class GestureRecorder {
+
+    static final int MAGIC = 0x50454C47;
+    static final byte VERSION = 2;
+    static final byte RECORD_SIZE = 1;
+    static final byte RECORD_MOTION = 2;
+
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private ByteBuffer mBuffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+    //开始记录的时刻
+    private final long mBaseTime;
+
+    GestureRecorder(int orientation, int width, int height) {
+        mBaseTime = SystemClock.uptimeMillis();
+        mBuffer.putInt(MAGIC);
+        mBuffer.put(VERSION);
+        mBuffer.put((byte) orientation);
+        mBuffer.putInt(width);
+        mBuffer.putInt(height);
+    }
+
+    /**
+     * 记录布局尺寸的变化
+     *
+     * @param width  宽度
+     * @param height 高度
+     */
+    void recordSize(int width, int height) {
+        ensureCapacity(13);
+        mBuffer.put(RECORD_SIZE);
+        mBuffer.putInt((int) (SystemClock.uptimeMillis() - mBaseTime));
+        mBuffer.putInt(width);
+        mBuffer.putInt(height);
+    }
+
+    /**
+     * 记录一个事件，包括批量的历史采样点
+     *
+     * @param event MotionEvent
+     */
+    void recordMotionEvent(@NonNull MotionEvent event) {
+        int pointerCount = event.getPointerCount();
+        int historySize = event.getHistorySize();
+        ensureCapacity(12 + pointerCount + (historySize + 1) * (4 + pointerCount * 8));
+        mBuffer.put(RECORD_MOTION);
+        mBuffer.putInt(event.getAction());
+        mBuffer.putInt((int) (event.getDownTime() - mBaseTime));
+        mBuffer.put((byte) pointerCount);
+        mBuffer.putShort((short) historySize);
+        for (int p = 0; p < pointerCount; p++) {
+            mBuffer.put((byte) event.getPointerId(p));
+        }
+        for (int h = 0; h < historySize; h++) {
+            mBuffer.putInt((int) (event.getHistoricalEventTime(h) - mBaseTime));
+            for (int p = 0; p < pointerCount; p++) {
+                mBuffer.putFloat(event.getHistoricalX(p, h));
+                mBuffer.putFloat(event.getHistoricalY(p, h));
+            }
+        }
+        mBuffer.putInt((int) (event.getEventTime() - mBaseTime));
+        for (int p = 0; p < pointerCount; p++) {
+            mBuffer.putFloat(event.getX(p));
+            mBuffer.putFloat(event.getY(p));
+        }
+    }
+
+    /**
+     * @return 记录的数据
+     */
+    @NonNull
+    byte[] toByteArray() {
+        byte[] bytes = new byte[mBuffer.position()];
+        System.arraycopy(mBuffer.array(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    private void ensureCapacity(int size) {
+        if (mBuffer.remaining() >= size) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(mBuffer.capacity() * 2, mBuffer.position() + size));
+        mBuffer.flip();
+        buffer.put(mBuffer);
+        mBuffer = buffer;
+    }
+}
@@ -0,0 +1,61 @@
+package com.zyyoona7.pullexpand;
+
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 拖动和松手动画期间把移动的子 View 提升为硬件层，结束后恢复
+ * 只处理自己提升的 View，不会修改使用者设置的 layerType
+ */
+class HardwareLayerHelper {
+
+    private final List<View> mPromotedViews = new ArrayList<>(3);
+    //累计提升次数
+    private int mPromotionCount = 0;
+
+    /**
+     * 提升为硬件层，以下情况跳过：
+     * 已经有 layerType、不可见、没有硬件加速、正在执行 View 动画或者自身正在刷新（提升后每帧都要重绘硬件层，得不偿失）
+     *
+     * @param view 需要提升的 View
+     */
+    void promote(@Nullable View view) {
+        if (view == null || mPromotedViews.contains(view)) {
+            return;
+        }
+        if (view.getLayerType() != View.LAYER_TYPE_NONE
+                || view.getVisibility() != View.VISIBLE
+                || !view.isHardwareAccelerated()
+                || view.getAnimation() != null
+                || view.isDirty()) {
+            return;
+        }
+        view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        mPromotedViews.add(view);
+        mPromotionCount++;
+    }
+
+    /**
+     * 恢复所有提升过的 View
+     */
+    void demoteAll() {
+        for (int i = 0; i < mPromotedViews.size(); i++) {
+            View view = mPromotedViews.get(i);
+            //使用者在期间修改了 layerType 时不再恢复
+            if (view.getLayerType() == View.LAYER_TYPE_HARDWARE) {
+                view.setLayerType(View.LAYER_TYPE_NONE, null);
+            }
+        }
+        mPromotedViews.clear();
+    }
+
+    /**
+     * @return 累计提升次数
+     */
+    int getPromotionCount() {
+        return mPromotionCount;
+    }
+}
@@ -2,6 +2,7 @@ package com.zyyoona7.pullexpand;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
 import android.support.annotation.IdRes;
 import android.support.annotation.IntDef;
 import android.support.annotation.LayoutRes;
@@ -50,6 +51,27 @@ public abstract class HeaderFooterLayout extends ViewGroup implements View.OnLay
     //设置ContentView在当前Layout中的id、设置ContentView为指定的id任选其一
     @IdRes
     protected int mContentId = View.NO_ID;
+    //懒加载，通过布局id设置的 Header Footer 在第一次拖动或者调用 preload 时才加载
+    protected boolean mIsLazyInflate;
+    //正在后台线程加载的 Header Footer，按方向记录，见 getInflatingFlag
+    private int mInflatingFlags = 0;
+    //跳过完全在可见区域之外的 Header Footer 的绘制
+    protected boolean mIsOffscreenCullingEnabled = true;
+    //上一次测量 Header Footer 时使用的 MeasureSpec
+    private int mLastWidthMeasureSpec;
+    private int mLastHeightMeasureSpec;
+    //四边模式，与布局方向垂直的另一方向上的 Header 和 Footer
+    //拖动方向确定后与 mHeaderView、mFooterView 互换，同一时间只有一个方向可以拉出
+    protected View mCrossHeaderView;
+    @LayoutRes
+    protected int mCrossHeaderLayoutId;
+    @IdRes
+    protected int mCrossHeaderId = View.NO_ID;
+    protected View mCrossFooterView;
+    @LayoutRes
+    protected int mCrossFooterLayoutId;
+    @IdRes
+    protected int mCrossFooterId = View.NO_ID;
 
     private LayoutInflater mLayoutInflater;
 
@@ -74,28 +96,40 @@ public abstract class HeaderFooterLayout extends ViewGroup implements View.OnLay
     @Override
     protected void onFinishInflate() {
         super.onFinishInflate();
+        mCrossHeaderId = mCrossHeaderId == View.NO_ID ? R.id.pull_expand_layout_cross_header : mCrossHeaderId;
+        mCrossHeaderView = getViewById(mCrossHeaderView, mCrossHeaderId, mIsLazyInflate ? 0 : mCrossHeaderLayoutId);
+        mCrossFooterId = mCrossFooterId == View.NO_ID ? R.id.pull_expand_layout_cross_footer : mCrossFooterId;
+        mCrossFooterView = getViewById(mCrossFooterView, mCrossFooterId, mIsLazyInflate ? 0 : mCrossFooterLayoutId);
+        //另一方向的 Header Footer 只能通过 id 或者布局id 指定，不参与下面按位置获取
         int childCount = getChildCount();
+        if (mCrossHeaderView != null) {
+            childCount--;
+        }
+        if (mCrossFooterView != null) {
+            childCount--;
+        }
         if (childCount > 3) {
-            throw new RuntimeException("HeaderFooterLayout child count must be <= 3");
+            throw new RuntimeException("HeaderFooterLayout child count must be <= 3,"
+                    + " except cross header and cross footer");
         }
 
         mContentId = mContentId == View.NO_ID ? R.id.pull_expand_layout_content : mContentId;
         mContentView = getViewById(mContentView, mContentId);
-        mHeaderId = mHeaderId == View.NO_ID ? R.id.pull_expand_layout_footer : mHeaderId;
-        mHeaderView = getViewById(mHeaderView, mHeaderId, mHeaderLayoutId);
+        mHeaderId = mHeaderId == View.NO_ID ? R.id.pull_expand_layout_header : mHeaderId;
+        mHeaderView = getViewById(mHeaderView, mHeaderId, mIsLazyInflate ? 0 : mHeaderLayoutId);
         mFooterId = mFooterId == View.NO_ID ? R.id.pull_expand_layout_footer : mFooterId;
-        mFooterView = getViewById(mFooterView, mFooterId, mFooterLayoutId);
+        mFooterView = getViewById(mFooterView, mFooterId, mIsLazyInflate ? 0 : mFooterLayoutId);
 
         if (mContentView == null) {
             if (childCount == 3) {
-                mHeaderView = getChildAt(0);
-                mContentView = getChildAt(1);
-                mFooterView = getChildAt(2);
+                mHeaderView = getChildAtExceptCross(0);
+                mContentView = getChildAtExceptCross(1);
+                mFooterView = getChildAtExceptCross(2);
             } else if (childCount == 2) {
-                mHeaderView = getChildAt(0);
-                mContentView = getChildAt(1);
+                mHeaderView = getChildAtExceptCross(0);
+                mContentView = getChildAtExceptCross(1);
             } else if (childCount == 1) {
-                mContentView = getChildAt(0);
+                mContentView = getChildAtExceptCross(0);
             }
         }
 //        if (mContentView == null) {
@@ -103,29 +137,54 @@ public abstract class HeaderFooterLayout extends ViewGroup implements View.OnLay
 //        }
     }
 
+    /**
+     * 按位置获取子 View，跳过另一方向的 Header 和 Footer
+     *
+     * @param index 位置
+     * @return 子 View
+     */
+    private View getChildAtExceptCross(int index) {
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (child == mCrossHeaderView || child == mCrossFooterView) {
+                continue;
+            }
+            if (index-- == 0) {
+                return child;
+            }
+        }
+        return null;
+    }
+
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
-        if (mHeaderView != null) {
-            mHeaderView.removeOnLayoutChangeListener(this);
-            mHeaderView.addOnLayoutChangeListener(this);
-        }
-
-        if (mFooterView != null) {
-            mFooterView.removeOnLayoutChangeListener(this);
-            mFooterView.addOnLayoutChangeListener(this);
-        }
+        //另一方向的 Header Footer 互换后成为 mHeaderView、mFooterView，同样需要监听
+        addLayoutChangeListener(mHeaderView);
+        addLayoutChangeListener(mFooterView);
+        addLayoutChangeListener(mCrossHeaderView);
+        addLayoutChangeListener(mCrossFooterView);
     }
 
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
-        if (mHeaderView != null) {
-            mHeaderView.removeOnLayoutChangeListener(this);
+        removeLayoutChangeListener(mHeaderView);
+        removeLayoutChangeListener(mFooterView);
+        removeLayoutChangeListener(mCrossHeaderView);
+        removeLayoutChangeListener(mCrossFooterView);
+    }
+
+    private void addLayoutChangeListener(@Nullable View view) {
+        if (view != null) {
+            view.removeOnLayoutChangeListener(this);
+            view.addOnLayoutChangeListener(this);
         }
+    }
 
-        if (mFooterView != null) {
-            mFooterView.removeOnLayoutChangeListener(this);
+    private void removeLayoutChangeListener(@Nullable View view) {
+        if (view != null) {
+            view.removeOnLayoutChangeListener(this);
         }
     }
 
@@ -133,13 +192,21 @@ public abstract class HeaderFooterLayout extends ViewGroup implements View.OnLay
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
 
+        //Header Footer 在屏幕外，只有 MeasureSpec 变化或者自身请求重新布局时才需要重新测量，
+        //避免 contentView 请求重新布局时（比如 notifyItemChanged）跟着测量
+        boolean isSpecChanged = widthMeasureSpec != mLastWidthMeasureSpec
+                || heightMeasureSpec != mLastHeightMeasureSpec;
+        mLastWidthMeasureSpec = widthMeasureSpec;
+        mLastHeightMeasureSpec = heightMeasureSpec;
         //如果当前布局为 wrap_content 则宽高以contentView的宽高为主
         int contentHeight = 0;
         int contentWidth = 0;
         for (int i = 0; i < getChildCount(); i++) {
             View childView = getChildAt(i);
-            measureChildWithMargins(childView, widthMeasureSpec,
-                    0, heightMeasureSpec, 0);
+            if (isSpecChanged || childView == mContentView || childView.isLayoutRequested()) {
+                measureChildWithMargins(childView, widthMeasureSpec,
+                        0, heightMeasureSpec, 0);
+            }
             MarginLayoutParams layoutParams = (MarginLayoutParams) childView.getLayoutParams();
             if (childView == mContentView) {
                 contentHeight = childView.getMeasuredHeight() + layoutParams.topMargin + layoutParams.bottomMargin;
@@ -155,22 +222,8 @@ public abstract class HeaderFooterLayout extends ViewGroup implements View.OnLay
 
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
-        if (mHeaderView != null) {
-            MarginLayoutParams headerLp = (MarginLayoutParams) mHeaderView.getLayoutParams();
-            if (mOrientation == VERTICAL) {
-                //超出屏幕的上方 相对0，0点的移动因为超出了屏幕所以top要-bottomMargin
-                mHeaderView.layout(getPaddingLeft() + headerLp.leftMargin,
-                        getPaddingTop() - mHeaderView.getMeasuredHeight() - headerLp.bottomMargin,
-                        getMeasuredWidth() - getPaddingRight() - headerLp.rightMargin,
-                        getPaddingTop() - headerLp.bottomMargin);
-
-            } else if (mOrientation == HORIZONTAL) {
-                //超出屏幕的左边 相对0，0点的移动因为超出了屏幕所以left要-rightMargin
-                mHeaderView.layout(getPaddingLeft() - mHeaderView.getMeasuredWidth() - headerLp.rightMargin,
-                        getPaddingTop() + headerLp.topMargin, getPaddingLeft() - headerLp.rightMargin,
-                        getMeasuredHeight() - getPaddingBottom() - headerLp.bottomMargin);
-            }
-        }
+        layoutHeader(mHeaderView, mOrientation);
+        layoutHeader(mCrossHeaderView, getCrossOrientation());
 
         if (mContentView != null) {
             MarginLayoutParams contentLp = (MarginLayoutParams) mContentView.getLayoutParams();
@@ -180,24 +233,116 @@ public abstract class HeaderFooterLayout extends ViewGroup implements View.OnLay
                     getMeasuredHeight() - contentLp.bottomMargin - getPaddingBottom());
         }
 
-        if (mFooterView != null) {
-            MarginLayoutParams footerLp = (MarginLayoutParams) mFooterView.getLayoutParams();
-            if (mOrientation == VERTICAL) {
-                mFooterView.layout(getPaddingLeft() + footerLp.leftMargin,
-                        getMeasuredHeight() + footerLp.topMargin - getPaddingBottom(),
-                        getMeasuredWidth() - getPaddingRight() - footerLp.rightMargin,
-                        getMeasuredHeight() + footerLp.topMargin
-                                + mFooterView.getMeasuredHeight() - getPaddingBottom());
-            } else if (mOrientation == HORIZONTAL) {
-                mFooterView.layout(getMeasuredWidth() + footerLp.leftMargin - getPaddingRight(),
-                        getPaddingTop() + footerLp.topMargin,
-                        getMeasuredWidth() + footerLp.leftMargin
-                                + mFooterView.getMeasuredWidth() - getPaddingRight(),
-                        getMeasuredHeight() - getPaddingBottom() - footerLp.bottomMargin);
-            }
+        layoutFooter(mFooterView, mOrientation);
+        layoutFooter(mCrossFooterView, getCrossOrientation());
+    }
+
+    /**
+     * 在指定方向上布局 Header
+     *
+     * @param headerView  headerView
+     * @param orientation 布局方向
+     */
+    private void layoutHeader(@Nullable View headerView, int orientation) {
+        if (headerView == null) {
+            return;
+        }
+        MarginLayoutParams headerLp = (MarginLayoutParams) headerView.getLayoutParams();
+        if (orientation == VERTICAL) {
+            //超出屏幕的上方 相对0，0点的移动因为超出了屏幕所以top要-bottomMargin
+            headerView.layout(getPaddingLeft() + headerLp.leftMargin,
+                    getPaddingTop() - headerView.getMeasuredHeight() - headerLp.bottomMargin,
+                    getMeasuredWidth() - getPaddingRight() - headerLp.rightMargin,
+                    getPaddingTop() - headerLp.bottomMargin);
+
+        } else if (orientation == HORIZONTAL) {
+            //超出屏幕的左边 相对0，0点的移动因为超出了屏幕所以left要-rightMargin
+            headerView.layout(getPaddingLeft() - headerView.getMeasuredWidth() - headerLp.rightMargin,
+                    getPaddingTop() + headerLp.topMargin, getPaddingLeft() - headerLp.rightMargin,
+                    getMeasuredHeight() - getPaddingBottom() - headerLp.bottomMargin);
+        }
+    }
+
+    /**
+     * 在指定方向上布局 Footer
+     *
+     * @param footerView  footerView
+     * @param orientation 布局方向
+     */
+    private void layoutFooter(@Nullable View footerView, int orientation) {
+        if (footerView == null) {
+            return;
+        }
+        MarginLayoutParams footerLp = (MarginLayoutParams) footerView.getLayoutParams();
+        if (orientation == VERTICAL) {
+            footerView.layout(getPaddingLeft() + footerLp.leftMargin,
+                    getMeasuredHeight() + footerLp.topMargin - getPaddingBottom(),
+                    getMeasuredWidth() - getPaddingRight() - footerLp.rightMargin,
+                    getMeasuredHeight() + footerLp.topMargin
+                            + footerView.getMeasuredHeight() - getPaddingBottom());
+        } else if (orientation == HORIZONTAL) {
+            footerView.layout(getMeasuredWidth() + footerLp.leftMargin - getPaddingRight(),
+                    getPaddingTop() + footerLp.topMargin,
+                    getMeasuredWidth() + footerLp.leftMargin
+                            + footerView.getMeasuredWidth() - getPaddingRight(),
+                    getMeasuredHeight() - getPaddingBottom() - footerLp.bottomMargin);
         }
     }
 
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        //另一方向上的偏移始终为 0，Header Footer 不会露出，不需要绘制
+        if (child == mCrossHeaderView || child == mCrossFooterView) {
+            return false;
+        }
+        //收起时 Header Footer 在可见区域之外，跳过绘制，露出一点就恢复绘制
+        if (mIsOffscreenCullingEnabled && (child == mHeaderView || child == mFooterView)
+                && !isChildInViewport(child)) {
+            return false;
+        }
+        return super.drawChild(canvas, child, drawingTime);
+    }
+
+    /**
+     * 子 View 是否与当前可见区域相交，包括 scroll 偏移和子 View 的 translation
+     *
+     * @param child 子 View
+     * @return 是否相交
+     */
+    protected boolean isChildInViewport(@NonNull View child) {
+        if (child.getScaleX() != 1f || child.getScaleY() != 1f || child.getRotation() != 0f
+                || child.getRotationX() != 0f || child.getRotationY() != 0f) {
+            //有缩放或者旋转时不计算实际绘制区域，按照相交处理
+            return true;
+        }
+        float left = child.getLeft() + child.getTranslationX();
+        float top = child.getTop() + child.getTranslationY();
+        int scrollX = getScrollX();
+        int scrollY = getScrollY();
+        return left < scrollX + getWidth() && left + child.getWidth() > scrollX
+                && top < scrollY + getHeight() && top + child.getHeight() > scrollY;
+    }
+
+    /**
+     * 设置是否跳过完全在可见区域之外的 Header Footer 的绘制
+     * 设置了 clipChildren=false 并且需要在布局之外绘制 Header Footer 时需要关闭
+     *
+     * @param offscreenCullingEnabled 是否跳过
+     */
+    public void setOffscreenCullingEnabled(boolean offscreenCullingEnabled) {
+        if (offscreenCullingEnabled != mIsOffscreenCullingEnabled) {
+            mIsOffscreenCullingEnabled = offscreenCullingEnabled;
+            invalidate();
+        }
+    }
+
+    /**
+     * @return 是否跳过完全在可见区域之外的 Header Footer 的绘制
+     */
+    public boolean isOffscreenCullingEnabled() {
+        return mIsOffscreenCullingEnabled;
+    }
+
     @Override
     protected LayoutParams generateLayoutParams(LayoutParams p) {
         return new MarginLayoutParams(p);
@@ -255,13 +400,110 @@ public abstract class HeaderFooterLayout extends ViewGroup implements View.OnLay
 
     @Nullable
     protected View getViewById(@Nullable View view, @IdRes int idRes, @LayoutRes int layoutId) {
-        removeFromParent(view);
-        if (idRes != View.NO_ID) {
-            return findViewById(idRes);
-        } else if (mHeaderLayoutId != 0) {
-            return getLayoutInflater().inflate(layoutId, this);
+        View result = getViewById(view, idRes);
+        if (result == null && layoutId != 0) {
+            //inflate 到 this 时返回的是 this，需要单独添加
+            result = getLayoutInflater().inflate(layoutId, this, false);
+            addView(result);
+        }
+        return result;
+    }
+
+    /**
+     * Header 是否等待懒加载
+     *
+     * @return 设置了布局id 并且还没有加载
+     */
+    protected boolean isHeaderInflatePending() {
+        return mHeaderView == null && mHeaderLayoutId != 0;
+    }
+
+    /**
+     * Footer 是否等待懒加载
+     *
+     * @return 设置了布局id 并且还没有加载
+     */
+    protected boolean isFooterInflatePending() {
+        return mFooterView == null && mFooterLayoutId != 0;
+    }
+
+    /**
+     * 在主线程立即加载懒加载的 Header 和 Footer，已经加载过的不会重复加载
+     * 正在后台加载的会被丢弃
+     */
+    public void preload() {
+        preload(mOrientation);
+        preload(getCrossOrientation());
+    }
+
+    private void preload(int orientation) {
+        int headerLayoutId = getHeaderLayoutId(orientation);
+        if (getHeaderView(orientation) == null && headerLayoutId != 0) {
+            setHeaderView(orientation, getLayoutInflater().inflate(headerLayoutId, this, false));
+        }
+        int footerLayoutId = getFooterLayoutId(orientation);
+        if (getFooterView(orientation) == null && footerLayoutId != 0) {
+            setFooterView(orientation, getLayoutInflater().inflate(footerLayoutId, this, false));
         }
-        return null;
+    }
+
+    /**
+     * 在后台线程提前加载懒加载的 Header 和 Footer，加载完成后在主线程添加
+     * 加载完成前开始拖动会在主线程立即加载
+     */
+    public void preloadAsync() {
+        preloadAsync(mOrientation, true);
+        preloadAsync(mOrientation, false);
+        preloadAsync(getCrossOrientation(), true);
+        preloadAsync(getCrossOrientation(), false);
+    }
+
+    private void preloadAsync(final int orientation, final boolean isHeader) {
+        final int flag = getInflatingFlag(orientation, isHeader);
+        int layoutId = isHeader ? getHeaderLayoutId(orientation) : getFooterLayoutId(orientation);
+        View view = isHeader ? getHeaderView(orientation) : getFooterView(orientation);
+        if (view != null || layoutId == 0 || (mInflatingFlags & flag) != 0) {
+            return;
+        }
+        mInflatingFlags |= flag;
+        BackgroundInflater.inflate(getLayoutInflater(), layoutId, this, new BackgroundInflater.Callback() {
+            @Override
+            public void onInflateFinished(@NonNull View view, int layoutId) {
+                mInflatingFlags &= ~flag;
+                //已经在主线程加载过或者布局id 已经变化则丢弃
+                if (isHeader) {
+                    if (getHeaderView(orientation) == null && getHeaderLayoutId(orientation) == layoutId) {
+                        setHeaderView(orientation, view);
+                    }
+                } else if (getFooterView(orientation) == null && getFooterLayoutId(orientation) == layoutId) {
+                    setFooterView(orientation, view);
+                }
+            }
+        });
+    }
+
+    private int getInflatingFlag(int orientation, boolean isHeader) {
+        return (isHeader ? 1 : 2) << (orientation * 2);
+    }
+
+    @Nullable
+    private View getHeaderView(int orientation) {
+        return orientation == mOrientation ? mHeaderView : mCrossHeaderView;
+    }
+
+    @Nullable
+    private View getFooterView(int orientation) {
+        return orientation == mOrientation ? mFooterView : mCrossFooterView;
+    }
+
+    @LayoutRes
+    private int getHeaderLayoutId(int orientation) {
+        return orientation == mOrientation ? mHeaderLayoutId : mCrossHeaderLayoutId;
+    }
+
+    @LayoutRes
+    private int getFooterLayoutId(int orientation) {
+        return orientation == mOrientation ? mFooterLayoutId : mCrossFooterLayoutId;
     }
 
     /**
@@ -277,16 +519,72 @@ public abstract class HeaderFooterLayout extends ViewGroup implements View.OnLay
 
     /**
      * 设置布局方向
+     * 四边模式下只是切换当前可以拉出的方向，Header Footer 随方向一起互换
      *
      * @param orientation 布局方向
      */
     public void setOrientation(@Orientation int orientation) {
         if (orientation != mOrientation) {
-            mOrientation = orientation;
+            if (isFourEdgeMode()) {
+                swapCrossAxis();
+            } else {
+                mOrientation = orientation;
+            }
             requestLayout();
         }
     }
 
+    /**
+     * 获取当前布局方向，四边模式下为当前可以拉出的方向
+     *
+     * @return 布局方向
+     */
+    @Orientation
+    public int getOrientation() {
+        return mOrientation;
+    }
+
+    /**
+     * @return 与布局方向垂直的方向
+     */
+    @Orientation
+    protected int getCrossOrientation() {
+        return mOrientation == VERTICAL ? HORIZONTAL : VERTICAL;
+    }
+
+    /**
+     * 是否为四边模式，即另一方向上也有 Header 或者 Footer
+     *
+     * @return 是否为四边模式
+     */
+    public boolean isFourEdgeMode() {
+        return mCrossHeaderView != null || mCrossFooterView != null
+                || mCrossHeaderLayoutId != 0 || mCrossFooterLayoutId != 0;
+    }
+
+    /**
+     * 切换到另一方向，互换两个方向上的 Header 和 Footer
+     * 互换前后每个 View 所在的方向不变，所以不需要重新布局，调用方需要保证两个方向上的偏移都为 0
+     * 两个方向上的 Header Footer 都注册了布局变化监听，onLayoutChange 按互换后的 View 分发，监听不需要调整
+     */
+    protected void swapCrossAxis() {
+        View headerView = mHeaderView;
+        mHeaderView = mCrossHeaderView;
+        mCrossHeaderView = headerView;
+        View footerView = mFooterView;
+        mFooterView = mCrossFooterView;
+        mCrossFooterView = footerView;
+        int headerLayoutId = mHeaderLayoutId;
+        mHeaderLayoutId = mCrossHeaderLayoutId;
+        mCrossHeaderLayoutId = headerLayoutId;
+        int footerLayoutId = mFooterLayoutId;
+        mFooterLayoutId = mCrossFooterLayoutId;
+        mCrossFooterLayoutId = footerLayoutId;
+        mOrientation = getCrossOrientation();
+        //绘制时跳过的 View 发生了变化
+        invalidate();
+    }
+
     /**
      * 设置头部View
      *
@@ -296,8 +594,10 @@ public abstract class HeaderFooterLayout extends ViewGroup implements View.OnLay
         if (headerView != null) {
             removeFromParent(headerView);
             removeFromParent(mHeaderView);
+            removeLayoutChangeListener(mHeaderView);
             mHeaderView = headerView;
             addView(mHeaderView);
+            addLayoutChangeListener(mHeaderView);
         }
     }
 
@@ -310,8 +610,48 @@ public abstract class HeaderFooterLayout extends ViewGroup implements View.OnLay
         if (footerView != null) {
             removeFromParent(footerView);
             removeFromParent(mFooterView);
+            removeLayoutChangeListener(mFooterView);
             mFooterView = footerView;
             addView(mFooterView);
+            addLayoutChangeListener(mFooterView);
+        }
+    }
+
+    /**
+     * 设置指定方向上的头部View，指定方向与布局方向垂直时开启四边模式
+     *
+     * @param orientation 方向
+     * @param headerView  头部View
+     */
+    public void setHeaderView(@Orientation int orientation, View headerView) {
+        if (orientation == mOrientation) {
+            setHeaderView(headerView);
+        } else if (headerView != null) {
+            removeFromParent(headerView);
+            removeFromParent(mCrossHeaderView);
+            removeLayoutChangeListener(mCrossHeaderView);
+            mCrossHeaderView = headerView;
+            addView(mCrossHeaderView);
+            addLayoutChangeListener(mCrossHeaderView);
+        }
+    }
+
+    /**
+     * 设置指定方向上的尾部View，指定方向与布局方向垂直时开启四边模式
+     *
+     * @param orientation 方向
+     * @param footerView  尾部View
+     */
+    public void setFooterView(@Orientation int orientation, View footerView) {
+        if (orientation == mOrientation) {
+            setFooterView(footerView);
+        } else if (footerView != null) {
+            removeFromParent(footerView);
+            removeFromParent(mCrossFooterView);
+            removeLayoutChangeListener(mCrossFooterView);
+            mCrossFooterView = footerView;
+            addView(mCrossFooterView);
+            addLayoutChangeListener(mCrossFooterView);
         }
     }
 
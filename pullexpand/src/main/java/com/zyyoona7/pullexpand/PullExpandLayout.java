@@ -6,24 +6,28 @@ import android.content.res.TypedArray;
 import android.support.annotation.FloatRange;
 import android.support.annotation.IntDef;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.view.NestedScrollingParent2;
+import android.support.v4.view.NestedScrollingParentHelper;
 import android.support.v4.view.ViewCompat;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
-import android.widget.Scroller;
 
+import com.zyyoona7.pullexpand.checker.DefaultScrollBoundaryChecker;
+import com.zyyoona7.pullexpand.checker.ScrollBoundaryChecker;
 import com.zyyoona7.pullexpand.listener.OnPullExpandChangedListener;
 import com.zyyoona7.pullexpand.listener.OnPullExpandStateListener;
+import com.zyyoona7.pullexpand.listener.OnPullExpandVisibilityListener;
 import com.zyyoona7.pullexpand.transformer.DefaultPullExpandTransformer;
+import com.zyyoona7.pullexpand.transformer.OffsetAwarePullExpandTransformer;
 import com.zyyoona7.pullexpand.transformer.PullExpandTransformer;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * 拖拽展开布局
@@ -34,9 +38,8 @@ import java.util.List;
  * @author zyyoona7
  * @since 2019/5/15
  */
-public class PullExpandLayout extends HeaderFooterLayout {
+public class PullExpandLayout extends HeaderFooterLayout implements NestedScrollingParent2 {
 
-    private static final String TAG = "PullExpandLayout";
 
     //阻尼效果比率 0-1之间，越大越顺畅
     private static final float DEFAULT_DRAG_RATE = 0.4f;
@@ -48,6 +51,24 @@ public class PullExpandLayout extends HeaderFooterLayout {
     //Header Footer 固定在ContentView之前
     public static final int DRAG_TYPE_FIXED_FOREGROUND = 2;
 
+    //松手后的动画引擎类型
+    //固定时长的 Scroller
+    public static final int SETTLE_MODE_SCROLLER = 0;
+    //阻尼弹簧
+    public static final int SETTLE_MODE_SPRING = 1;
+
+    //OnPullExpandChangedListener 回调分发方式
+    //每次移动都回调 onXxMoving 和 onXxStateChanged
+    public static final int DISPATCH_MODE_EVERY_MOVE = 0;
+    //onXxStateChanged 只在状态变化时回调，onXxMoving 每帧最多回调一次最新的偏移
+    public static final int DISPATCH_MODE_TRANSITION = 1;
+
+    //偏移方式
+    //通过 scrollTo 滚动整个 PullExpandLayout
+    public static final int OFFSET_MODE_SCROLL = 0;
+    //通过 translationX/translationY 平移 Header、Content 和 Footer
+    public static final int OFFSET_MODE_TRANSLATION = 1;
+
     //Header 或者 Footer 状态
     //已经展开
     public static final int STATE_EXPANDED = 0;
@@ -63,7 +84,9 @@ public class PullExpandLayout extends HeaderFooterLayout {
     private static final int DIRECTION_VERTICAL = 1;
     private static final int DIRECTION_HORIZONTAL = 2;
 
-    private boolean mIsDebug = false;
+    //调试事件记录，关闭时为 null
+    @Nullable
+    private DebugEventRecorder mDebugEventRecorder;
 
     //头部高度
     private int mHeaderHeight;
@@ -92,13 +115,96 @@ public class PullExpandLayout extends HeaderFooterLayout {
     private int mFooterMaxDragDistance;
     //尾部最大拖动距离的比率 mFooterHeight(或者Width)*mHeaderMaxDragDistanceRate=mHeaderMaxDragDistance;
     private float mFooterMaxDragDistanceRate;
-    //Scroller
-    private Scroller mScroller;
+    //四边模式下另一方向 Header Footer 的拖拽临界值和最大拖动距离，切换方向时与当前方向的互换
+    private int mCrossHeaderDragThreshold;
+    private int mCrossHeaderMaxDragDistance;
+    private int mCrossFooterDragThreshold;
+    private int mCrossFooterMaxDragDistance;
+    //上一次计算临界值时另一方向 Header Footer 的尺寸
+    private int mCrossHeaderHeight;
+    private int mCrossHeaderWidth;
+    private int mCrossFooterHeight;
+    private int mCrossFooterWidth;
+    //布局方向变化后需要重新计算临界值
+    private boolean mIsDragThresholdDirty = true;
+    //懒加载的 Header Footer 加载前使用的尺寸，用于计算拖拽临界值和最大拖动距离
+    private int mHeaderPlaceholderSize;
+    private int mFooterPlaceholderSize;
+    //当前的尺寸是否为占位尺寸，加载后测量出真实尺寸时需要同步展开位置
+    private boolean mIsHeaderSizePlaceholder = false;
+    private boolean mIsFooterSizePlaceholder = false;
+    private boolean mIsHeaderSizeResolved = false;
+    private boolean mIsFooterSizeResolved = false;
+    //松手后滚动到最终态的动画引擎
+    private SettleEngine mSettleEngine;
+    //动画引擎类型
+    @SettleMode
+    private int mSettleMode;
+    //弹簧刚度
+    private float mSpringStiffness;
+    //弹簧阻尼比
+    private float mSpringDampingRatio;
+    //布局方向上的坐标轴
+    private Axis mAxis;
+    //偏移方式
+    @OffsetMode
+    private int mOffsetMode;
+    //OFFSET_MODE_TRANSLATION 时的偏移，与 scrollX/scrollY 含义一致
+    private int mOffsetX = 0;
+    private int mOffsetY = 0;
+    //最后一次分发回调时的偏移和状态，布局时没有变化就不再分发
+    private boolean mIsStateDispatched = false;
+    private int mDispatchedOffset = 0;
+    private int mDispatchedHeaderState = STATE_COLLAPSED;
+    private int mDispatchedFooterState = STATE_COLLAPSED;
+    //OnPullExpandChangedListener 回调分发方式
+    @DispatchMode
+    private int mDispatchMode;
+    //DISPATCH_MODE_TRANSITION 时最后一次回调给 OnPullExpandChangedListener 的状态
+    private int mChangedHeaderState = -1;
+    private int mChangedFooterState = -1;
+    //DISPATCH_MODE_TRANSITION 时等待下一帧回调的移动距离，-1 表示没有
+    private int mPendingHeaderMovingOffset = -1;
+    private int mPendingFooterMovingOffset = -1;
+    //DISPATCH_MODE_TRANSITION 时合并 onXxMoving 回调的帧驱动
+    private final AnimationFrameDriver mMovingDispatchDriver;
+    //是否合并 MOVE 事件，每帧最多更新一次偏移
+    private boolean mIsMoveCoalescingEnabled;
+    //合并 MOVE 事件时，按照每个事件阻尼计算后还没有应用到布局的目标偏移
+    private boolean mHasPendingDrag = false;
+    private float mPendingDragOffset = 0f;
+    //拖动时阻尼计算后不足 1px 的部分，只在偏移仍为 mDragRemainderOffset 时有效
+    private float mDragRemainder = 0f;
+    private int mDragRemainderOffset = 0;
+    //合并 MOVE 事件时应用偏移的帧驱动
+    private final AnimationFrameDriver mDragFrameDriver;
+    //根据拖拽类型调整后的子 View 绘制顺序，下标为绘制位置，值为子 View 下标
+    private int[] mChildDrawingOrder = new int[0];
+    //拖动和动画期间是否把子 View 提升为硬件层
+    private boolean mIsHardwareLayerEnabled;
+    //本次拖动或动画是否已经尝试过提升硬件层
+    private boolean mIsLayerPromotionTried = false;
+    private final HardwareLayerHelper mHardwareLayerHelper = new HardwareLayerHelper();
+    //动画时间源
+    private AnimationTimeSource mAnimationTimeSource = AnimationTimeSource.DEFAULT;
+    //动画帧驱动，只在动画进行中按 vsync 推进偏移，与绘制流程无关
+    private final AnimationFrameDriver mSettleFrameDriver;
+    //性能统计，关闭时为 null
+    @Nullable
+    private PullExpandMetrics mMetrics;
+    //等待下一帧统计输入延迟的事件时间，-1 表示没有
+    private long mPendingInputEventTime = -1;
+    //统计输入延迟的帧驱动
+    private final AnimationFrameDriver mInputLatencyDriver;
+    //松手动画开始的时间，-1 表示没有统计中的动画
+    private long mSettleStartTime = -1;
+    //手势记录，没有在记录时为 null
+    @Nullable
+    private GestureRecorder mGestureRecorder;
     //手指触摸/正在滑动
     private boolean mIsFingerTouched = false;
-    //是否有操作，比如按下滑动之类的，
-    // 控制 computeScroll 没有人为操作的情况下不一直执行
-    private boolean mIsComputeScrollCanCheckState = false;
+    //偏移发生过变化，等待手势结束或者松手动画结束时同步最终状态
+    private boolean mIsStateCheckPending = false;
     //头部是否展开
     private boolean mIsHeaderExpanded = false;
     //尾部是否展开
@@ -122,6 +228,11 @@ public class PullExpandLayout extends HeaderFooterLayout {
     //记录单次滚动x,y轴偏移量
     private float mDeltaY;
     private float mDeltaX;
+    //本次 ACTION_MOVE 开始时（上一个事件）的坐标，用于逐个处理批量的历史采样点
+    private float mMoveStartY;
+    private float mMoveStartX;
+    //是否处理 ACTION_MOVE 中批量的历史采样点，高采样率屏幕上每个 ACTION_MOVE 会包含多个采样点
+    private boolean mIsProcessHistoricalEvents;
     //滑动事件目前是否在本控件的控制中
     // （用于过渡滑动事件：比如正在滚动recyclerView到顶部后自动切换到Layout处理后续事件进行下拉）
     private boolean mIsInSelfControl = false;
@@ -136,14 +247,24 @@ public class PullExpandLayout extends HeaderFooterLayout {
     //手势检测 用于检测当前手势和滑动方向
     private VelocityTracker mVelocityTracker;
     private int mMaximumVelocity;
-    //private float mCurrentVelocityY;
-    //private float mCurrentVelocityX;
+    //超过此速度松手时按照手指滑动的方向打开或者关闭
+    private int mMinFlingVelocity;
+    //是否根据松手时的速度决定打开或者关闭，默认关闭，只按照拖拽的临界值判断
+    private boolean mIsFlingReleaseEnabled;
+    private float mCurrentVelocityY;
+    private float mCurrentVelocityX;
     private int mTouchSlop;
     //拖动方向 ，竖直方向只拦截竖直方向滑动，反之也如此
     private int mDragDirection = DIRECTION_NONE;
 
-    private List<OnPullExpandChangedListener> mOnPullExpandChangedListeners;
-    private List<OnPullExpandStateListener> mOnPullExpandStateListeners;
+    private final ListenerRegistry<OnPullExpandChangedListener> mOnPullExpandChangedListeners = new ListenerRegistry<>();
+    private final ListenerRegistry<OnPullExpandStateListener> mOnPullExpandStateListeners = new ListenerRegistry<>();
+    private final ListenerRegistry<OnPullExpandVisibilityListener> mOnPullExpandVisibilityListeners = new ListenerRegistry<>();
+    //Header Footer 是否露出可见区域
+    private boolean mIsHeaderVisible = false;
+    private boolean mIsFooterVisible = false;
+    //完全在可见区域之外并且没有被拉出的 Header Footer 跳过转换器回调
+    private boolean mIsSkipOffscreenTransform;
     //当前Header的状态
     private int mCurrentHeaderState = STATE_COLLAPSED;
     //当前Footer的状态
@@ -151,6 +272,21 @@ public class PullExpandLayout extends HeaderFooterLayout {
 
     //PullExpandLayout 转换器
     private PullExpandTransformer mPullExpandTransformer;
+    //contentView 边界检查器
+    private ScrollBoundaryChecker mScrollBoundaryChecker = new DefaultScrollBoundaryChecker();
+
+    //嵌套滑动模式开关，开启后支持嵌套滑动的 contentView 通过嵌套滑动驱动 Header Footer 偏移
+    //不支持嵌套滑动的 contentView 仍然使用 dispatchTouchEvent 转发事件的方式
+    private boolean mIsNestedScrollModeEnabled;
+    private NestedScrollingParentHelper mNestedScrollingParentHelper;
+    //是否正在进行嵌套滑动
+    private boolean mIsNestedScrollInProgress = false;
+    //本次嵌套滑动是否产生过偏移
+    private boolean mIsNestedScrollMoved = false;
+    //嵌套滑动松手时的速度
+    private float mNestedFlingVelocity = 0f;
+    //兼容 NestedScrollingParent2 回调时复用的 consumed 数组
+    private final int[] mNestedScrollConsumed = new int[2];
 
     public PullExpandLayout(Context context) {
         this(context, null);
@@ -163,10 +299,46 @@ public class PullExpandLayout extends HeaderFooterLayout {
     public PullExpandLayout(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
         initAttrs(context, attrs);
+        mAxis = Axis.of(mOrientation);
         ViewConfiguration configuration = ViewConfiguration.get(context);
         mMaximumVelocity = configuration.getScaledMaximumFlingVelocity();
+        mMinFlingVelocity = configuration.getScaledMinimumFlingVelocity();
         mTouchSlop = configuration.getScaledTouchSlop();
-        mScroller = new Scroller(context);
+        mSettleEngine = createSettleEngine(mSettleMode);
+        mSettleFrameDriver = new AnimationFrameDriver(new ChoreographerFrameScheduler(this),
+                new AnimationFrameDriver.Callback() {
+                    @Override
+                    public boolean onAnimationFrame(long frameTimeMillis) {
+                        return doSettleFrame();
+                    }
+                });
+        mDragFrameDriver = new AnimationFrameDriver(new ChoreographerFrameScheduler(this),
+                new AnimationFrameDriver.Callback() {
+                    @Override
+                    public boolean onAnimationFrame(long frameTimeMillis) {
+                        flushPendingDrag();
+                        return false;
+                    }
+                });
+        mMovingDispatchDriver = new AnimationFrameDriver(new ChoreographerFrameScheduler(this),
+                new AnimationFrameDriver.Callback() {
+                    @Override
+                    public boolean onAnimationFrame(long frameTimeMillis) {
+                        flushPendingMoving();
+                        return false;
+                    }
+                });
+        mInputLatencyDriver = new AnimationFrameDriver(new ChoreographerFrameScheduler(this),
+                new AnimationFrameDriver.Callback() {
+                    @Override
+                    public boolean onAnimationFrame(long frameTimeMillis) {
+                        recordInputLatency(frameTimeMillis);
+                        return false;
+                    }
+                });
+        mNestedScrollingParentHelper = new NestedScrollingParentHelper(this);
+        //根据拖拽类型调整绘制顺序，代替 bringToFront，切换拖拽类型时不需要重新布局
+        setChildrenDrawingOrderEnabled(true);
     }
 
     /**
@@ -182,6 +354,15 @@ public class PullExpandLayout extends HeaderFooterLayout {
         mContentId = typedArray.getResourceId(R.styleable.PullExpandLayout_pel_contentId, View.NO_ID);
         mFooterLayoutId = typedArray.getResourceId(R.styleable.PullExpandLayout_pel_footerLayoutId, 0);
         mFooterId = typedArray.getResourceId(R.styleable.PullExpandLayout_pel_footerId, View.NO_ID);
+        mCrossHeaderLayoutId = typedArray.getResourceId(R.styleable.PullExpandLayout_pel_crossHeaderLayoutId, 0);
+        mCrossHeaderId = typedArray.getResourceId(R.styleable.PullExpandLayout_pel_crossHeaderId, View.NO_ID);
+        mCrossFooterLayoutId = typedArray.getResourceId(R.styleable.PullExpandLayout_pel_crossFooterLayoutId, 0);
+        mIsOffscreenCullingEnabled = typedArray.getBoolean(R.styleable.PullExpandLayout_pel_offscreenCulling, true);
+        mIsSkipOffscreenTransform = typedArray.getBoolean(R.styleable.PullExpandLayout_pel_skipOffscreenTransform, false);
+        mCrossFooterId = typedArray.getResourceId(R.styleable.PullExpandLayout_pel_crossFooterId, View.NO_ID);
+        mIsLazyInflate = typedArray.getBoolean(R.styleable.PullExpandLayout_pel_lazyInflate, false);
+        mHeaderPlaceholderSize = typedArray.getDimensionPixelSize(R.styleable.PullExpandLayout_pel_headerPlaceholderSize, 0);
+        mFooterPlaceholderSize = typedArray.getDimensionPixelSize(R.styleable.PullExpandLayout_pel_footerPlaceholderSize, 0);
         mDragRate = typedArray.getFloat(R.styleable.PullExpandLayout_pel_dragRate, DEFAULT_DRAG_RATE);
         if (mDragRate > 1 || mDragRate < 0) {
             mDragRate = DEFAULT_DRAG_RATE;
@@ -199,8 +380,24 @@ public class PullExpandLayout extends HeaderFooterLayout {
         mFooterMaxDragDistance = typedArray.getDimensionPixelOffset(R.styleable.PullExpandLayout_pel_footerMaxDragDistance, 0);
         mFooterMaxDragDistanceRate = typedArray.getFloat(R.styleable.PullExpandLayout_pel_footerMaxDragDistanceRate, 0f);
         mFooterMaxDragDistanceRate = getMaxDragDisRateInRange(mFooterMaxDragDistanceRate);
+        mCrossHeaderDragThreshold = mHeaderDragThreshold;
+        mCrossHeaderMaxDragDistance = mHeaderMaxDragDistance;
+        mCrossFooterDragThreshold = mFooterDragThreshold;
+        mCrossFooterMaxDragDistance = mFooterMaxDragDistance;
         mIsHeaderEnabled = typedArray.getBoolean(R.styleable.PullExpandLayout_pel_headerEnabled, true);
         mIsFooterEnabled = typedArray.getBoolean(R.styleable.PullExpandLayout_pel_footerEnabled, true);
+        mIsNestedScrollModeEnabled = typedArray.getBoolean(R.styleable.PullExpandLayout_pel_nestedScrollMode, false);
+        mIsProcessHistoricalEvents = typedArray.getBoolean(R.styleable.PullExpandLayout_pel_processHistoricalEvents, false);
+        mIsFlingReleaseEnabled = typedArray.getBoolean(R.styleable.PullExpandLayout_pel_flingRelease, false);
+        mIsMoveCoalescingEnabled = typedArray.getBoolean(R.styleable.PullExpandLayout_pel_coalesceMoveEvents, false);
+        mDispatchMode = typedArray.getInt(R.styleable.PullExpandLayout_pel_dispatchMode, DISPATCH_MODE_EVERY_MOVE);
+        mIsHardwareLayerEnabled = typedArray.getBoolean(R.styleable.PullExpandLayout_pel_hardwareLayerEnabled, false);
+        mOffsetMode = typedArray.getInt(R.styleable.PullExpandLayout_pel_offsetMode, OFFSET_MODE_SCROLL);
+        mSettleMode = typedArray.getInt(R.styleable.PullExpandLayout_pel_settleMode, SETTLE_MODE_SCROLLER);
+        mSpringStiffness = typedArray.getFloat(R.styleable.PullExpandLayout_pel_springStiffness,
+                SpringSettleEngine.DEFAULT_STIFFNESS);
+        mSpringDampingRatio = typedArray.getFloat(R.styleable.PullExpandLayout_pel_springDampingRatio,
+                SpringSettleEngine.DEFAULT_DAMPING_RATIO);
         typedArray.recycle();
     }
 
@@ -236,49 +433,100 @@ public class PullExpandLayout extends HeaderFooterLayout {
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
 
-        if (mHeaderView != null) {
-            mHeaderHeight = mHeaderView.getMeasuredHeight();
-            mHeaderWidth = mHeaderView.getMeasuredWidth();
-            mHeaderDragThreshold = getDragThreshold(mHeaderHeight, mHeaderWidth,
+        int lastHeaderHeight = mHeaderHeight;
+        int lastHeaderWidth = mHeaderWidth;
+        int lastFooterHeight = mFooterHeight;
+        int lastFooterWidth = mFooterWidth;
+        updateHeaderFooterSize();
+        //Content 请求重新布局时 Header Footer 的尺寸一般不会变化，尺寸不变时临界值也不变
+        boolean isDirty = mIsDragThresholdDirty;
+        mIsDragThresholdDirty = false;
+        if ((mHeaderView != null || mIsHeaderSizePlaceholder)
+                && (isDirty || mHeaderHeight != lastHeaderHeight || mHeaderWidth != lastHeaderWidth)) {
+            mHeaderDragThreshold = getDragThreshold(mAxis, mHeaderHeight, mHeaderWidth,
                     mHeaderDragThreshold, mHeaderDragThresholdRate);
-            mHeaderMaxDragDistance = getMaxDragDistance(mHeaderHeight, mHeaderWidth,
+            mHeaderMaxDragDistance = getMaxDragDistance(mAxis, mHeaderHeight, mHeaderWidth,
                     mHeaderMaxDragDistance, mHeaderMaxDragDistanceRate);
         }
 
-        if (mFooterView != null) {
-            mFooterHeight = mFooterView.getMeasuredHeight();
-            mFooterWidth = mFooterView.getMeasuredWidth();
-            mFooterDragThreshold = getDragThreshold(mFooterHeight, mFooterWidth,
+        if ((mFooterView != null || mIsFooterSizePlaceholder)
+                && (isDirty || mFooterHeight != lastFooterHeight || mFooterWidth != lastFooterWidth)) {
+            mFooterDragThreshold = getDragThreshold(mAxis, mFooterHeight, mFooterWidth,
                     mFooterDragThreshold, mFooterDragThresholdRate);
-            mFooterMaxDragDistance = getMaxDragDistance(mFooterHeight, mFooterWidth,
+            mFooterMaxDragDistance = getMaxDragDistance(mAxis, mFooterHeight, mFooterWidth,
                     mFooterMaxDragDistance, mFooterMaxDragDistanceRate);
         }
 
-        if (mIsDebug) {
-            Log.d(TAG, "onMeasure: header height:" + mHeaderHeight + ",header width:" + mHeaderWidth
-                    + ",header max drag height" + mHeaderMaxDragDistance);
+        Axis crossAxis = Axis.of(getCrossOrientation());
+        if (mCrossHeaderView != null && (isDirty
+                || mCrossHeaderView.getMeasuredHeight() != mCrossHeaderHeight
+                || mCrossHeaderView.getMeasuredWidth() != mCrossHeaderWidth)) {
+            mCrossHeaderHeight = mCrossHeaderView.getMeasuredHeight();
+            mCrossHeaderWidth = mCrossHeaderView.getMeasuredWidth();
+            mCrossHeaderDragThreshold = getDragThreshold(crossAxis, mCrossHeaderHeight, mCrossHeaderWidth,
+                    mCrossHeaderDragThreshold, mHeaderDragThresholdRate);
+            mCrossHeaderMaxDragDistance = getMaxDragDistance(crossAxis, mCrossHeaderHeight, mCrossHeaderWidth,
+                    mCrossHeaderMaxDragDistance, mHeaderMaxDragDistanceRate);
+        }
+
+        if (mCrossFooterView != null && (isDirty
+                || mCrossFooterView.getMeasuredHeight() != mCrossFooterHeight
+                || mCrossFooterView.getMeasuredWidth() != mCrossFooterWidth)) {
+            mCrossFooterHeight = mCrossFooterView.getMeasuredHeight();
+            mCrossFooterWidth = mCrossFooterView.getMeasuredWidth();
+            mCrossFooterDragThreshold = getDragThreshold(crossAxis, mCrossFooterHeight, mCrossFooterWidth,
+                    mCrossFooterDragThreshold, mFooterDragThresholdRate);
+            mCrossFooterMaxDragDistance = getMaxDragDistance(crossAxis, mCrossFooterHeight, mCrossFooterWidth,
+                    mCrossFooterMaxDragDistance, mFooterMaxDragDistanceRate);
+        }
+
+        recordDebugEvent(DebugEventRecorder.EVENT_MEASURE, 0);
+    }
+
+    /**
+     * 根据测量结果更新 Header 和 Footer 的尺寸，懒加载的 Header Footer 加载前使用占位尺寸
+     */
+    private void updateHeaderFooterSize() {
+        boolean isHeaderPlaceholder = isHeaderInflatePending();
+        if (isHeaderPlaceholder) {
+            mHeaderHeight = mHeaderPlaceholderSize;
+            mHeaderWidth = mHeaderPlaceholderSize;
+        } else {
+            mHeaderHeight = mHeaderView != null ? mHeaderView.getMeasuredHeight() : 0;
+            mHeaderWidth = mHeaderView != null ? mHeaderView.getMeasuredWidth() : 0;
+        }
+        mIsHeaderSizeResolved |= mIsHeaderSizePlaceholder && !isHeaderPlaceholder;
+        mIsHeaderSizePlaceholder = isHeaderPlaceholder;
 
-            Log.d(TAG, "onMeasure: footer height:" + mFooterHeight + ",footer width:" + mFooterWidth
-                    + ",footer max drag height" + mFooterMaxDragDistance);
+        boolean isFooterPlaceholder = isFooterInflatePending();
+        if (isFooterPlaceholder) {
+            mFooterHeight = mFooterPlaceholderSize;
+            mFooterWidth = mFooterPlaceholderSize;
+        } else {
+            mFooterHeight = mFooterView != null ? mFooterView.getMeasuredHeight() : 0;
+            mFooterWidth = mFooterView != null ? mFooterView.getMeasuredWidth() : 0;
         }
+        mIsFooterSizeResolved |= mIsFooterSizePlaceholder && !isFooterPlaceholder;
+        mIsFooterSizePlaceholder = isFooterPlaceholder;
     }
 
     /**
      * 获取 Header 或者 Footer 的拖拽临界值
      *
+     * @param axis          Header 或 Footer 所在的坐标轴
      * @param height        Header 或 Footer 高度
      * @param width         Header 或 Footer 宽度
      * @param dragThreshold 属性获取的 dragThreshold
      * @param rate          属性获取的 drag rate
      * @return Header 或者 Footer 的拖拽临界值
      */
-    private int getDragThreshold(int height, int width, int dragThreshold, float rate) {
-        int defaultThreshold = isVertical() ? height / 3 : width / 3;
+    private int getDragThreshold(Axis axis, int height, int width, int dragThreshold, float rate) {
+        int defaultThreshold = axis.select(width, height) / 3;
         if (dragThreshold == 0 && rate == 0f) {
             return defaultThreshold;
         }
         if (rate > 0f) {
-            return (int) (isVertical() ? height * rate : width * rate);
+            return (int) (axis.select(width, height) * rate);
         }
         if (dragThreshold > 0) {
             return dragThreshold;
@@ -289,23 +537,23 @@ public class PullExpandLayout extends HeaderFooterLayout {
     /**
      * 获取 Header 或者 Footer 的最大拖拽距离
      *
+     * @param axis            Header 或 Footer 所在的坐标轴
      * @param height          Header 或 Footer 高度
      * @param width           Header 或 Footer 宽度
      * @param maxDragDistance 属性获取的最大拖拽距离
      * @param rate            属性获取的最大拖拽距离比率
      * @return
      */
-    private int getMaxDragDistance(int height, int width, int maxDragDistance, float rate) {
-        int defaultMaxDragDistance = isVertical() ? height : width;
+    private int getMaxDragDistance(Axis axis, int height, int width, int maxDragDistance, float rate) {
+        int defaultMaxDragDistance = axis.select(width, height);
         if (maxDragDistance == 0 && rate == 0) {
             return defaultMaxDragDistance;
         }
 
         if (rate > 0f) {
-            return (int) (isVertical() ? height * rate : width * rate);
+            return (int) (defaultMaxDragDistance * rate);
         }
-        if (maxDragDistance > 0
-                && (isVertical() ? maxDragDistance > height : maxDragDistance > width)) {
+        if (maxDragDistance > 0 && maxDragDistance > defaultMaxDragDistance) {
             return maxDragDistance;
         }
 
@@ -316,33 +564,117 @@ public class PullExpandLayout extends HeaderFooterLayout {
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
         super.onLayout(changed, l, t, r, b);
 
-        if (mDragType == DRAG_TYPE_FIXED_BEHIND) {
-            if (mContentView != null) {
-                mContentView.bringToFront();
+        //懒加载的 Header Footer 测量出真实尺寸后，展开中或者已经展开的需要滚动到真实的位置
+        if (mIsHeaderSizeResolved) {
+            mIsHeaderSizeResolved = false;
+            if (!mIsFingerTouched && getOffset() < 0
+                    && (mIsHeaderExpanded || mCurrentHeaderState == STATE_EXPANDING)) {
+                openHeader(true);
             }
-        } else if (mDragType == DRAG_TYPE_FIXED_FOREGROUND) {
-            if (mHeaderView != null) {
-                mHeaderView.bringToFront();
+        }
+        if (mIsFooterSizeResolved) {
+            mIsFooterSizeResolved = false;
+            if (!mIsFingerTouched && getOffset() > 0
+                    && (mIsFooterExpanded || mCurrentFooterState == STATE_EXPANDING)) {
+                openFooter(true);
             }
+        }
+
+        //初始化结束后执行一次状态变化，之后只有偏移或状态真正变化时才分发
+        if (isStateDispatchNeeded()) {
+            onMovingAndStateCallback(false);
+        }
+        //Header Footer 尺寸或者位置可能发生了变化
+        updateHeaderFooterVisibility(getOffset());
+
+        recordDebugEvent(DebugEventRecorder.EVENT_LAYOUT, 0);
+    }
+
+    @Override
+    protected int getChildDrawingOrder(int childCount, int drawingPosition) {
+        if (drawingPosition == 0 || mChildDrawingOrder.length != childCount) {
+            //每次绘制开始时更新一次
+            updateChildDrawingOrder(childCount);
+        }
+        return mChildDrawingOrder[drawingPosition];
+    }
 
-            if (mFooterView != null) {
-                mFooterView.bringToFront();
+    /**
+     * 按照绘制层级稳定排序子 View，层级相同的保持添加顺序
+     * DRAG_TYPE_FIXED_BEHIND 时 Content 在最上层，DRAG_TYPE_FIXED_FOREGROUND 时 Header Footer 在最上层
+     *
+     * @param childCount 子 View 数量
+     */
+    private void updateChildDrawingOrder(int childCount) {
+        if (mChildDrawingOrder.length != childCount) {
+            mChildDrawingOrder = new int[childCount];
+        }
+        int position = 0;
+        for (int level = 0; level <= 1; level++) {
+            for (int i = 0; i < childCount; i++) {
+                if (getChildDrawingLevel(getChildAt(i)) == level) {
+                    mChildDrawingOrder[position++] = i;
+                }
             }
         }
+    }
+
+    /**
+     * 获取子 View 的绘制层级
+     *
+     * @param child 子 View
+     * @return 0 下层 1 上层
+     */
+    private int getChildDrawingLevel(View child) {
+        if (mDragType == DRAG_TYPE_FIXED_BEHIND) {
+            return child == mContentView ? 1 : 0;
+        }
+        if (mDragType == DRAG_TYPE_FIXED_FOREGROUND) {
+            return child == mHeaderView || child == mFooterView ? 1 : 0;
+        }
+        return 0;
+    }
+
+    @Override
+    public void addView(View child, int index, LayoutParams params) {
+        super.addView(child, index, params);
+        if (mOffsetMode == OFFSET_MODE_TRANSLATION) {
+            //新添加的子 View 同步当前偏移
+            child.setTranslationX(child.getTranslationX() - mOffsetX);
+            child.setTranslationY(child.getTranslationY() - mOffsetY);
+        }
+    }
 
-        //初始化结束后执行一次状态变化
-        onMovingAndStateCallback(false);
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        //重新添加到窗口时继续未完成的动画
+        if (!mSettleEngine.isFinished()) {
+            mSettleFrameDriver.start();
+        }
+    }
 
-        if (mIsDebug) {
-            Log.d(TAG, "onLayout: execute...");
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mSettleFrameDriver.stop();
+        mInputLatencyDriver.stop();
+        mPendingInputEventTime = -1;
+        flushPendingDrag();
+        flushPendingMoving();
+        demoteMovingChildren();
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
         }
     }
 
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
-        if (mIsDebug) {
-            Log.d(TAG, "onSizeChanged: execute...");
+        recordDebugEvent(DebugEventRecorder.EVENT_SIZE_CHANGED, 0);
+        if (mGestureRecorder != null) {
+            mGestureRecorder.recordSize(w, h);
         }
         //当前View的尺寸发生改变时同步一下状态
         if ((oldw != 0 && w != oldw) || (oldh != 0 && h != oldh)) {
@@ -372,9 +704,7 @@ public class PullExpandLayout extends HeaderFooterLayout {
                 openHeader(true);
             }
         }
-        if (mIsDebug) {
-            Log.d(TAG, "onHeaderLayoutChanged: execute...");
-        }
+        recordDebugEvent(DebugEventRecorder.EVENT_HEADER_LAYOUT_CHANGED, 0);
     }
 
     /**
@@ -397,9 +727,7 @@ public class PullExpandLayout extends HeaderFooterLayout {
             //当Footer展开时并且Footer尺寸发生变化，需要同步一下状态，否则会卡住
             openFooter(true);
         }
-        if (mIsDebug) {
-            Log.d(TAG, "onHeaderLayoutChanged: execute...");
-        }
+        recordDebugEvent(DebugEventRecorder.EVENT_FOOTER_LAYOUT_CHANGED, 0);
     }
 
     /**
@@ -411,45 +739,61 @@ public class PullExpandLayout extends HeaderFooterLayout {
      */
     @Override
     public boolean dispatchTouchEvent(MotionEvent ev) {
+        if (mGestureRecorder != null) {
+            mGestureRecorder.recordMotionEvent(ev);
+        }
         if (!isEnabled()) {
             return super.dispatchTouchEvent(ev);
         }
 
+        PullExpandTrace.beginSection(PullExpandTrace.SECTION_DISPATCH_TOUCH_EVENT);
         dealMulTouchEvent(ev);
         switch (ev.getActionMasked()) {
             case MotionEvent.ACTION_DOWN:
                 mIsNeedSelfMove = false;
                 mIsFingerTouched = true;
-                mIsComputeScrollCanCheckState = true;
-                mLastScrollY = getScrollY();
-                mLastScrollX = getScrollX();
-                if (mIsDebug) {
-                    Log.d(TAG, "dispatchTouchEvent ACTION_DOWN...");
+                updateLastScroll();
+                mDragRemainder = 0f;
+                //不拦截的手势不会走到 onTouchEvent 的 ACTION_UP，每次按下重新判断拖动方向
+                mDragDirection = DIRECTION_NONE;
+                if (mMetrics != null) {
+                    mMetrics.onGestureStart();
                 }
+                recordDebugEvent(DebugEventRecorder.EVENT_TOUCH_DOWN, 0);
                 break;
             case MotionEvent.ACTION_MOVE:
                 mIsFingerTouched = true;
-                mIsComputeScrollCanCheckState = true;
-                mIsNeedSelfMove = isNeedSelfMoveVertical() || isNeedSelfMoveHorizontal();
+                if (mIsNestedScrollInProgress) {
+                    //嵌套滑动进行中，偏移由 onNestedPreScroll/onNestedScroll 处理
+                    mIsNeedSelfMove = false;
+                    break;
+                }
+                mIsNeedSelfMove = isNeedSelfMove();
                 //需要自身滚动，并且自身并没有在控制滚动
                 if (mIsNeedSelfMove && !mIsInSelfControl) {
-                    if (mIsDebug) {
-                        Log.d(TAG, "dispatchTouchEvent in self Control.");
-                    }
+                    recordDebugEvent(DebugEventRecorder.EVENT_SELF_CONTROL, getDelta());
                     //把内部控件的事件转发给本控件处理
                     mIsInSelfControl = true;
-                    ev.setAction(MotionEvent.ACTION_CANCEL);
-                    MotionEvent ev2 = MotionEvent.obtain(ev);
-                    super.dispatchTouchEvent(ev);
-                    ev2.setAction(MotionEvent.ACTION_DOWN);
-                    return super.dispatchTouchEvent(ev2);
+                    recordMetric(PullExpandMetrics.COUNTER_HANDOFFS);
+                    PullExpandTrace.endSection();
+                    return dispatchSuperSyntheticEvent(ev, true);
                 }
                 break;
             case MotionEvent.ACTION_UP:
             case MotionEvent.ACTION_CANCEL:
                 mIsFingerTouched = false;
-                break;
+                //松手前应用还没有应用的偏移，保证按照最终位置计算状态
+                flushPendingDrag();
+                PullExpandTrace.endSection();
+                boolean handled = super.dispatchTouchEvent(ev);
+                //手势结束，没有开始松手动画（比如偏移没有被本控件处理）时在这里同步最终状态
+                checkSettledState();
+                if (mMetrics != null) {
+                    mMetrics.onGestureEnd();
+                }
+                return handled;
         }
+        PullExpandTrace.endSection();
         return super.dispatchTouchEvent(ev);
     }
 
@@ -480,6 +824,8 @@ public class PullExpandLayout extends HeaderFooterLayout {
                 final int pointerIndex = ev.findPointerIndex(mActivePointerId);
                 final float x = ev.getX(pointerIndex);
                 final float y = ev.getY(pointerIndex);
+                mMoveStartX = mLastX;
+                mMoveStartY = mLastY;
                 mDeltaX = x - mLastX;
                 mDeltaY = y - mLastY;
                 mLastY = y;
@@ -527,27 +873,28 @@ public class PullExpandLayout extends HeaderFooterLayout {
         }
         switch (event.getActionMasked()) {
             case MotionEvent.ACTION_DOWN:
-                mLastScrollY = getScrollY();
-                mLastScrollX = getScrollX();
+                updateLastScroll();
                 mVelocityTracker.addMovement(event);
                 break;
             case MotionEvent.ACTION_MOVE:
                 mVelocityTracker.addMovement(event);
+                if (mMetrics != null) {
+                    mMetrics.increment(PullExpandMetrics.COUNTER_MOVE_EVENTS);
+                    markInputEvent(event);
+                }
                 onActionMove(event);
                 break;
             case MotionEvent.ACTION_UP:
                 mVelocityTracker.addMovement(event);
                 mVelocityTracker.computeCurrentVelocity(1000, mMaximumVelocity);
-//                mCurrentVelocityY = mVelocityTracker.getYVelocity();
-//                mCurrentVelocityX = mVelocityTracker.getXVelocity();
+                mCurrentVelocityY = mVelocityTracker.getYVelocity();
+                mCurrentVelocityX = mVelocityTracker.getXVelocity();
                 mDeltaY = 0;
                 mDeltaX = 0;
                 mLastX = 0;
                 mLastY = 0;
-                if (mIsDebug) {
-                    Log.d(TAG, "onTouchEvent ACTION_UP.." + getScrollY());
-                }
-                computeScrollToState(true);
+                recordDebugEvent(DebugEventRecorder.EVENT_TOUCH_UP, mAxis.select(mCurrentVelocityX, mCurrentVelocityY));
+                computeScrollToState(true, mAxis.select(mCurrentVelocityX, mCurrentVelocityY));
                 callReleaseChangedListeners();
                 mVelocityTracker.clear();//清空速度追踪器
                 mDragDirection = DIRECTION_NONE;
@@ -566,9 +913,251 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @param event
      */
     private void dispatchSuperActionDown(MotionEvent event) {
-        MotionEvent ev2 = MotionEvent.obtain(event);
-        ev2.setAction(MotionEvent.ACTION_DOWN);
-        super.dispatchTouchEvent(ev2);
+        recordMetric(PullExpandMetrics.COUNTER_HANDOFFS);
+        dispatchSuperSyntheticEvent(event, false);
+    }
+
+    /**
+     * 复制当前事件合成 ACTION_DOWN 交给 super 分发，分发结束后立即回收
+     * 需要取消 Content 时先用同一个事件分发 ACTION_CANCEL，再通过 setAction/setLocation 重置成 ACTION_DOWN，
+     * 每次接管只 obtain 一次，MotionEvent.obtain 复用系统的 MotionEvent 缓存池，不会产生新的对象
+     * 合成事件的时间需要和当前事件一致，所以不跨手势复用同一个事件
+     *
+     * @param event           当前事件
+     * @param isCancelContent 是否先分发 ACTION_CANCEL 取消 Content
+     * @return super.dispatchTouchEvent 的结果
+     */
+    private boolean dispatchSuperSyntheticEvent(MotionEvent event, boolean isCancelContent) {
+        MotionEvent syntheticEvent = MotionEvent.obtain(event);
+        if (isCancelContent) {
+            syntheticEvent.setAction(MotionEvent.ACTION_CANCEL);
+            super.dispatchTouchEvent(syntheticEvent);
+            //分发给子 View 时可能被偏移过，恢复到当前事件的位置
+            syntheticEvent.setLocation(event.getX(), event.getY());
+        }
+        syntheticEvent.setAction(MotionEvent.ACTION_DOWN);
+        boolean handled = super.dispatchTouchEvent(syntheticEvent);
+        syntheticEvent.recycle();
+        return handled;
+    }
+
+    @Override
+    public boolean onStartNestedScroll(@NonNull View child, @NonNull View target, int axes, int type) {
+        //只处理手指拖动产生的嵌套滑动，惯性滑动不拉出 Header Footer
+        if (!mIsNestedScrollModeEnabled || !isEnabled() || type != ViewCompat.TYPE_TOUCH) {
+            return false;
+        }
+        if ((axes & mAxis.getNestedScrollAxis()) != 0) {
+            return true;
+        }
+        //四边模式下切换到 contentView 的滚动方向
+        int crossOrientation = getCrossOrientation();
+        return (axes & Axis.of(crossOrientation).getNestedScrollAxis()) != 0
+                && switchOrientationIfIdle(crossOrientation);
+    }
+
+    @Override
+    public boolean onStartNestedScroll(@NonNull View child, @NonNull View target, int axes) {
+        return onStartNestedScroll(child, target, axes, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onNestedScrollAccepted(@NonNull View child, @NonNull View target, int axes, int type) {
+        mNestedScrollingParentHelper.onNestedScrollAccepted(child, target, axes, type);
+        preload();
+        flushPendingDrag();
+        stopSettle();
+        mIsNestedScrollInProgress = true;
+        mIsNestedScrollMoved = false;
+        mNestedFlingVelocity = 0f;
+        mIsNeedSelfMove = false;
+        mIsInSelfControl = false;
+        updateLastScroll();
+    }
+
+    @Override
+    public void onNestedScrollAccepted(@NonNull View child, @NonNull View target, int axes) {
+        onNestedScrollAccepted(child, target, axes, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onNestedPreScroll(@NonNull View target, int dx, int dy, @NonNull int[] consumed, int type) {
+        if (!mIsNestedScrollInProgress) {
+            return;
+        }
+        int dyOrDx = mAxis.select(dx, dy);
+        int scrollYOrX = getOffset();
+        //Header 或者 Footer 已经被拉出，先由本控件消耗滑动距离收起 Header 或者 Footer
+        boolean isCloseHeader = scrollYOrX < 0 && dyOrDx > 0;
+        boolean isCloseFooter = scrollYOrX > 0 && dyOrDx < 0;
+        if (!isCloseHeader && !isCloseFooter) {
+            return;
+        }
+        int moveDyOrDx = getDragDistance(-dyOrDx, scrollYOrX);
+        int targetScrollYOrX = scrollYOrX - moveDyOrDx;
+        int consumedDyOrDx = dyOrDx;
+        if (moveDyOrDx != 0 && targetScrollYOrX * scrollYOrX <= 0) {
+            //收起后剩余的距离交给 contentView 滚动
+            targetScrollYOrX = 0;
+            consumedDyOrDx = (int) (dyOrDx * (scrollYOrX * 1.0f / moveDyOrDx));
+        }
+        doNestedScrollTo(targetScrollYOrX);
+        consumed[mAxis.getIndex()] = consumedDyOrDx;
+    }
+
+    @Override
+    public void onNestedPreScroll(@NonNull View target, int dx, int dy, @NonNull int[] consumed) {
+        onNestedPreScroll(target, dx, dy, consumed, ViewCompat.TYPE_TOUCH);
+    }
+
+    public void onNestedScroll(@NonNull View target, int dxConsumed, int dyConsumed,
+                               int dxUnconsumed, int dyUnconsumed, int type, @NonNull int[] consumed) {
+        if (!mIsNestedScrollInProgress) {
+            return;
+        }
+        int unconsumedDyOrDx = mAxis.select(dxUnconsumed, dyUnconsumed);
+        //contentView 已经滚动到边界，剩余的距离用来拉出 Header 或者 Footer
+        boolean isPullHeader = unconsumedDyOrDx < 0 && mHeaderView != null && mIsHeaderEnabled;
+        boolean isPullFooter = unconsumedDyOrDx > 0 && mFooterView != null && mIsFooterEnabled;
+        if (!isPullHeader && !isPullFooter) {
+            return;
+        }
+        int scrollYOrX = getOffset();
+        doNestedScrollTo(scrollYOrX - getDragDistance(-unconsumedDyOrDx, scrollYOrX));
+        consumed[mAxis.getIndex()] += unconsumedDyOrDx;
+    }
+
+    @Override
+    public void onNestedScroll(@NonNull View target, int dxConsumed, int dyConsumed,
+                               int dxUnconsumed, int dyUnconsumed, int type) {
+        mNestedScrollConsumed[0] = 0;
+        mNestedScrollConsumed[1] = 0;
+        onNestedScroll(target, dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, type, mNestedScrollConsumed);
+    }
+
+    @Override
+    public void onNestedScroll(@NonNull View target, int dxConsumed, int dyConsumed,
+                               int dxUnconsumed, int dyUnconsumed) {
+        onNestedScroll(target, dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onStopNestedScroll(@NonNull View target, int type) {
+        mNestedScrollingParentHelper.onStopNestedScroll(target, type);
+        if (!mIsNestedScrollInProgress) {
+            return;
+        }
+        mIsNestedScrollInProgress = false;
+        if (mIsNestedScrollMoved || getOffset() != 0) {
+            computeScrollToState(true, mNestedFlingVelocity);
+            callReleaseChangedListeners();
+        }
+        mIsNestedScrollMoved = false;
+        mNestedFlingVelocity = 0f;
+    }
+
+    @Override
+    public void onStopNestedScroll(@NonNull View target) {
+        onStopNestedScroll(target, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public boolean onNestedPreFling(@NonNull View target, float velocityX, float velocityY) {
+        //contentView 的滚动速度方向和手指方向相反，onStopNestedScroll 时用来决定打开或者关闭
+        mNestedFlingVelocity = -mAxis.select(velocityX, velocityY);
+        //Header 或者 Footer 被拉出时不让 contentView 惯性滑动
+        return getOffset() != 0;
+    }
+
+    @Override
+    public boolean onNestedFling(@NonNull View target, float velocityX, float velocityY, boolean consumed) {
+        return false;
+    }
+
+    @Override
+    public int getNestedScrollAxes() {
+        return mNestedScrollingParentHelper.getNestedScrollAxes();
+    }
+
+    /**
+     * 嵌套滑动时直接滚动到指定偏移
+     *
+     * @param scrollYOrX 目标 scrollY or scrollX
+     */
+    private void doNestedScrollTo(int scrollYOrX) {
+        setOffset(scrollYOrX);
+        mIsNestedScrollMoved = true;
+        //偏移回调
+        onMovingAndStateCallback();
+        doOnScrollAndDrag();
+        updateLastScroll();
+    }
+
+    /**
+     * 是否需要自身处理滑动事件
+     * 四边模式下先锁定拖动方向，偏移为 0 时切换到拖动方向上的 Header Footer，之后只判断这一个方向
+     *
+     * @return 是否自身处理滑动事件
+     */
+    private boolean isNeedSelfMove() {
+        if (isFourEdgeMode()) {
+            checkDragVerticalDirection();
+            checkDragHorizontalDirection();
+            if (mDragDirection == DIRECTION_VERTICAL) {
+                switchOrientationIfIdle(VERTICAL);
+            } else if (mDragDirection == DIRECTION_HORIZONTAL) {
+                switchOrientationIfIdle(HORIZONTAL);
+            }
+        } else if (isVertical()) {
+            checkDragVerticalDirection();
+        } else {
+            checkDragHorizontalDirection();
+        }
+        //懒加载的 Header Footer 在第一次超过 touch slop 的拖动时加载
+        if (mDragDirection != DIRECTION_NONE) {
+            preload();
+        }
+        return isVertical() ? isNeedSelfMoveVertical() : isNeedSelfMoveHorizontal();
+    }
+
+    /**
+     * 四边模式下，当前方向的 Header Footer 都收起并且没有动画时切换到指定方向
+     *
+     * @param orientation 目标方向
+     * @return 当前方向是否为目标方向
+     */
+    private boolean switchOrientationIfIdle(@Orientation int orientation) {
+        if (orientation == mOrientation) {
+            return true;
+        }
+        if (!isFourEdgeMode() || getOffset() != 0 || mHasPendingDrag || !mSettleEngine.isFinished()) {
+            return false;
+        }
+        swapCrossAxis();
+        return true;
+    }
+
+    @Override
+    protected void swapCrossAxis() {
+        super.swapCrossAxis();
+        mAxis = Axis.of(mOrientation);
+        int headerDragThreshold = mHeaderDragThreshold;
+        mHeaderDragThreshold = mCrossHeaderDragThreshold;
+        mCrossHeaderDragThreshold = headerDragThreshold;
+        int headerMaxDragDistance = mHeaderMaxDragDistance;
+        mHeaderMaxDragDistance = mCrossHeaderMaxDragDistance;
+        mCrossHeaderMaxDragDistance = headerMaxDragDistance;
+        int footerDragThreshold = mFooterDragThreshold;
+        mFooterDragThreshold = mCrossFooterDragThreshold;
+        mCrossFooterDragThreshold = footerDragThreshold;
+        int footerMaxDragDistance = mFooterMaxDragDistance;
+        mFooterMaxDragDistance = mCrossFooterMaxDragDistance;
+        mCrossFooterMaxDragDistance = footerMaxDragDistance;
+        updateHeaderFooterSize();
+        updateLastScroll();
+        //新方向上的 Header Footer 还没有变换过
+        doOnScrollAndDrag();
+        recordDebugEvent(DebugEventRecorder.EVENT_SWAP_CROSS_AXIS, mOrientation);
     }
 
     /**
@@ -587,12 +1176,13 @@ public class PullExpandLayout extends HeaderFooterLayout {
             return false;
         }
 
-        boolean isTop = isChildScrollToTop();
-        boolean isBottom = isChildScrollToBottom();
         //下滑
         boolean moveDown = mDeltaY > 0;
         //上滑
         boolean moveUp = mDeltaY < 0;
+        //顶部只在下滑时用到，底部只在上滑时用到
+        boolean isTop = moveDown && isChildScrollToTop();
+        boolean isBottom = moveUp && isChildScrollToBottom();
         //用户禁止了下拉操作，则不控制
         if (!mIsHeaderEnabled && isTop && moveDown) {
             return false;
@@ -601,40 +1191,34 @@ public class PullExpandLayout extends HeaderFooterLayout {
         if (!mIsFooterEnabled && isBottom && moveUp) {
             return false;
         }
+        //合并 MOVE 事件时使用还没有应用的目标偏移，和逐个处理时的判断一致
+        int offsetYOrX = getSelfMoveOffset();
         if (mHeaderView != null) {
             //其中的20是一个防止触摸误差的偏移量
             //getScrollY() < -20 有可能在手动开启的 Header，contentView并没有到达顶部 上滑后再下滑
             //如果 Header 已经拉到头了则不拦截
-            if (moveDown && (isTop || (getScrollY() < -20 && Math.abs(getScrollY()) < mHeaderHeight))) {
-                if (mIsDebug) {
-                    Log.d(TAG, "isNeedSelfMove moveDown Header");
-                }
+            if (moveDown && (isTop || (offsetYOrX < -20 && Math.abs(offsetYOrX) < mHeaderHeight))) {
+                recordDebugEvent(DebugEventRecorder.EVENT_SELF_MOVE_HEADER_EXPAND, getDelta());
                 return true;
             }
-            if (moveUp && getScrollY() < -20) {
+            if (moveUp && offsetYOrX < -20) {
                 //上滑的时候 Header 有可能展开了也有可能没展开
                 //有可能通过方法展开后，contentView可能不在顶部
-                if (mIsDebug) {
-                    Log.d(TAG, "isNeedSelfMove moveUp Header");
-                }
+                recordDebugEvent(DebugEventRecorder.EVENT_SELF_MOVE_HEADER_COLLAPSE, getDelta());
                 return true;
             }
         }
         if (mFooterView != null) {
             //getScrollY() > 20 有可能在手动开启的 Footer，contentView并没有到达底部 下滑后再上滑
             //如果 Footer 已经拉到头了，则不拦截
-            if (moveUp && (isBottom || (getScrollY() > 20 && getScrollY() < mFooterHeight))) {
-                if (mIsDebug) {
-                    Log.d(TAG, "isNeedSelfMove moveUp Footer");
-                }
+            if (moveUp && (isBottom || (offsetYOrX > 20 && offsetYOrX < mFooterHeight))) {
+                recordDebugEvent(DebugEventRecorder.EVENT_SELF_MOVE_FOOTER_EXPAND, getDelta());
                 return true;
             }
-            if (moveDown && getScrollY() > 20) {
+            if (moveDown && offsetYOrX > 20) {
                 //下滑的时候 Footer 有可能展开了也有可能没展开
                 //有可能通过方法展开后，contentView可能不在底部
-                if (mIsDebug) {
-                    Log.d(TAG, "isNeedSelfMove moveDown Footer");
-                }
+                recordDebugEvent(DebugEventRecorder.EVENT_SELF_MOVE_FOOTER_COLLAPSE, getDelta());
                 return true;
             }
         }
@@ -656,12 +1240,13 @@ public class PullExpandLayout extends HeaderFooterLayout {
         if (mDragDirection != DIRECTION_HORIZONTAL) {
             return false;
         }
-        boolean isLeft = isChildScrollToLeft();
-        boolean isRight = isChildScrollToRight();
         //右滑
         boolean moveRight = mDeltaX > 0;
         //左滑
         boolean moveLeft = mDeltaX < 0;
+        //最左侧只在右滑时用到，最右侧只在左滑时用到
+        boolean isLeft = moveRight && isChildScrollToLeft();
+        boolean isRight = moveLeft && isChildScrollToRight();
         //用户禁止了下拉操作，则不控制
         if (!mIsHeaderEnabled && isLeft && moveRight) {
             return false;
@@ -670,46 +1255,50 @@ public class PullExpandLayout extends HeaderFooterLayout {
         if (!mIsFooterEnabled && isRight && moveLeft) {
             return false;
         }
+        //合并 MOVE 事件时使用还没有应用的目标偏移，和逐个处理时的判断一致
+        int offsetYOrX = getSelfMoveOffset();
         if (mHeaderView != null) {
             //其中的20是一个防止触摸误差的偏移量
             //getScrollX() < -20 有可能在手动开启的 Header，contentView并没有到达最左侧 左滑后再右滑
             //如果 Header 已经拉到头了则不拦截
-            if (moveRight && (isLeft || (getScrollX() < -20 && Math.abs(getScrollX()) < mHeaderWidth))) {
-                if (mIsDebug) {
-                    Log.d(TAG, "isNeedSelfMove moveRight Header");
-                }
+            if (moveRight && (isLeft || (offsetYOrX < -20 && Math.abs(offsetYOrX) < mHeaderWidth))) {
+                recordDebugEvent(DebugEventRecorder.EVENT_SELF_MOVE_HEADER_EXPAND, getDelta());
                 return true;
             }
-            if (moveLeft && getScrollX() < -20) {
+            if (moveLeft && offsetYOrX < -20) {
                 //上滑的时候 Header 有可能展开了也有可能没展开
                 //有可能通过方法展开后，contentView可能不在最左侧
-                if (mIsDebug) {
-                    Log.d(TAG, "isNeedSelfMove moveLeft Header");
-                }
+                recordDebugEvent(DebugEventRecorder.EVENT_SELF_MOVE_HEADER_COLLAPSE, getDelta());
                 return true;
             }
         }
         if (mFooterView != null) {
             //getScrollX() > 20 有可能在手动开启的 Footer，contentView并没有到达最右侧 右滑后再左滑
             //如果 Footer 已经拉到头了则不拦截
-            if (moveLeft && (isRight || (getScrollX() > 20 && getScrollX() < mFooterWidth))) {
-                if (mIsDebug) {
-                    Log.d(TAG, "isNeedSelfMove moveLeft Footer");
-                }
+            if (moveLeft && (isRight || (offsetYOrX > 20 && offsetYOrX < mFooterWidth))) {
+                recordDebugEvent(DebugEventRecorder.EVENT_SELF_MOVE_FOOTER_EXPAND, getDelta());
                 return true;
             }
-            if (moveRight && getScrollX() > 20) {
+            if (moveRight && offsetYOrX > 20) {
                 //右滑的时候 Footer 有可能展开了也有可能没展开
                 //有可能通过方法展开后，contentView可能不在最右侧
-                if (mIsDebug) {
-                    Log.d(TAG, "isNeedSelfMove moveRight Footer");
-                }
+                recordDebugEvent(DebugEventRecorder.EVENT_SELF_MOVE_FOOTER_COLLAPSE, getDelta());
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * 获取判断是否需要自身处理滑动事件时使用的偏移
+     * 合并 MOVE 事件时为下一帧将要应用的偏移，否则为当前偏移
+     *
+     * @return scrollY or scrollX
+     */
+    private int getSelfMoveOffset() {
+        return Math.round(getDragBaseOffset());
+    }
+
     /**
      * 检查垂直拖拽方向，如果是横向拖拽则不拦截事件
      */
@@ -720,9 +1309,7 @@ public class PullExpandLayout extends HeaderFooterLayout {
         if (mDragDirection == DIRECTION_VERTICAL
                 || (Math.abs(mDeltaY) >= mTouchSlop && Math.abs(mDeltaX) < Math.abs(mDeltaY))) {
             mDragDirection = DIRECTION_VERTICAL;
-            if (mIsDebug) {
-                Log.d(TAG, "checkDragDirection: direction vertical ");
-            }
+            recordDebugEvent(DebugEventRecorder.EVENT_DIRECTION_VERTICAL, mDeltaY);
         }
     }
 
@@ -737,9 +1324,7 @@ public class PullExpandLayout extends HeaderFooterLayout {
                 || (Math.abs(mDeltaY) < Math.abs(mDeltaX) && Math.abs(mDeltaX) > mTouchSlop
                 && mDragDirection != DIRECTION_VERTICAL)) {
             mDragDirection = DIRECTION_HORIZONTAL;
-            if (mIsDebug) {
-                Log.d(TAG, "checkDragDirection: direction horizontal ");
-            }
+            recordDebugEvent(DebugEventRecorder.EVENT_DIRECTION_HORIZONTAL, mDeltaX);
         }
     }
 
@@ -749,7 +1334,7 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @return
      */
     private boolean isChildScrollToTop() {
-        return mContentView != null && !mContentView.canScrollVertically(-1);
+        return mContentView != null && mScrollBoundaryChecker.isScrollToTop(mContentView);
     }
 
     /**
@@ -758,7 +1343,7 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @return
      */
     private boolean isChildScrollToBottom() {
-        return mContentView != null && !mContentView.canScrollVertically(1);
+        return mContentView != null && mScrollBoundaryChecker.isScrollToBottom(mContentView);
     }
 
     /**
@@ -767,7 +1352,7 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @return
      */
     private boolean isChildScrollToLeft() {
-        return mContentView != null && !mContentView.canScrollHorizontally(-1);
+        return mContentView != null && mScrollBoundaryChecker.isScrollToLeft(mContentView);
     }
 
     /**
@@ -776,16 +1361,7 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @return
      */
     private boolean isChildScrollToRight() {
-        return mContentView != null && !mContentView.canScrollHorizontally(1);
-    }
-
-    /**
-     * 判断当前滚动位置是否已经进入可折叠范围了
-     *
-     * @return
-     */
-    private boolean isFlowY() {
-        return getScrollY() > -30 && getScrollY() < 30;
+        return mContentView != null && mScrollBoundaryChecker.isScrollToRight(mContentView);
     }
 
     /**
@@ -793,8 +1369,9 @@ public class PullExpandLayout extends HeaderFooterLayout {
      *
      * @return
      */
-    private boolean isFlowX() {
-        return getScrollX() > -30 && getScrollX() < 30;
+    private boolean isFlow() {
+        int scrollYOrX = getOffset();
+        return scrollYOrX > -30 && scrollYOrX < 30;
     }
 
     /**
@@ -805,11 +1382,10 @@ public class PullExpandLayout extends HeaderFooterLayout {
     private void onActionMove(MotionEvent event) {
         if (mIsNeedSelfMove) {
             doScrollOrFastScroll(event);
-            mLastScrollY = getScrollY();
-            mLastScrollX = getScrollX();
+            updateLastScroll();
         } else {
-            boolean isResetState = isVertical() ? mDeltaY != 0 && isFlowY()
-                    : mDeltaX != 0 && isFlowX();
+            flushPendingDrag();
+            boolean isResetState = getDelta() != 0 && isFlow();
             //手指在产生移动的时候（dy!=0 || dx!=0）才重置位置
             if (isResetState) {
                 computeScrollToState(false);
@@ -827,21 +1403,18 @@ public class PullExpandLayout extends HeaderFooterLayout {
      */
     private void doScrollOrFastScroll(MotionEvent event) {
         //如果这一次的滚动相较与上一次的滚动做乘法正负符号发生变化则表示滚动太快 视作快速滚动
-        boolean isNotFastScroll = isVertical() ? mLastScrollY * (mLastScrollY - mDeltaY) >= 0
-                : mLastScrollX * (mLastScrollX - mDeltaX) >= 0;
+        //合并 MOVE 事件时上一次的位置是还没有应用的目标偏移
+        float lastScrollYOrX = getDragBaseOffset();
+        boolean isNotFastScroll = lastScrollYOrX * (lastScrollYOrX - getDelta()) >= 0;
         if (isNotFastScroll) {
-            doScroll();
-            if (mIsDebug) {
-                Log.d(TAG, "doScrollOrFastScroll dy or dx.." + (isVertical() ? mDeltaY : mDeltaX)
-                        + ",scrollYOrX.." + (isVertical() ? getScrollY() : getScrollX()));
-            }
+            doScroll(event);
+            recordDebugEvent(DebugEventRecorder.EVENT_DRAG, getDelta());
         } else {
+            flushPendingDrag();
             doFastScroll();
             dispatchSuperActionDown(event);
             mIsInSelfControl = false;
-            if (mIsDebug) {
-                Log.d(TAG, "doScrollOrFastScroll release scroll.." + (isVertical() ? mDeltaY : mDeltaX));
-            }
+            recordDebugEvent(DebugEventRecorder.EVENT_FAST_SCROLL, getDelta());
         }
     }
 
@@ -849,29 +1422,153 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * 执行滚动
      */
     private void doScroll() {
-        if (!mScroller.isFinished()) {
-            mScroller.forceFinished(true);
+        doScroll(getDelta());
+    }
+
+    /**
+     * 执行滚动，开启处理历史事件时 MotionEvent 中批量的每个采样点都参与阻尼计算
+     *
+     * @param event MotionEvent
+     */
+    private void doScroll(MotionEvent event) {
+        int historySize = event.getHistorySize();
+        int pointerIndex = event.findPointerIndex(mActivePointerId);
+        if (!mIsProcessHistoricalEvents || historySize == 0 || pointerIndex < 0) {
+            doScroll();
+            return;
+        }
+        PullExpandTrace.beginSection(PullExpandTrace.SECTION_DO_SCROLL);
+        Axis axis = mAxis;
+        //从上一个事件的位置开始，依次对每个采样点做阻尼计算，最后统一取整
+        float lastYOrX = axis.select(mMoveStartX, mMoveStartY);
+        float scrollYOrX = getDragBaseOffset();
+        for (int h = 0; h < historySize; h++) {
+            float yOrX = axis.getHistoricalPosition(event, pointerIndex, h);
+            scrollYOrX -= getDampedDragDistance(yOrX - lastYOrX, scrollYOrX);
+            lastYOrX = yOrX;
+        }
+        float yOrX = axis.getPosition(event, pointerIndex);
+        scrollYOrX -= getDampedDragDistance(yOrX - lastYOrX, scrollYOrX);
+        applyDragOffset(scrollYOrX);
+        PullExpandTrace.endSection();
+    }
+
+    /**
+     * 执行滚动
+     *
+     * @param deltaYOrX 手指移动距离 >0 下/右滑 <0 上/左滑
+     */
+    private void doScroll(float deltaYOrX) {
+        PullExpandTrace.beginSection(PullExpandTrace.SECTION_DO_SCROLL);
+        float scrollYOrX = getDragBaseOffset();
+        applyDragOffset(scrollYOrX - getDampedDragDistance(deltaYOrX, scrollYOrX));
+        PullExpandTrace.endSection();
+    }
+
+    /**
+     * 获取阻尼计算的起始偏移，包括上一次拖动不足 1px 的部分，
+     * 合并 MOVE 事件时为还没有应用的目标偏移
+     *
+     * @return scrollY or scrollX
+     */
+    private float getDragBaseOffset() {
+        if (mHasPendingDrag) {
+            return mPendingDragOffset;
+        }
+        int scrollYOrX = getOffset();
+        //偏移被动画、快速滚动等改变后，之前的余数不再有效
+        return scrollYOrX == mDragRemainderOffset ? scrollYOrX + mDragRemainder : scrollYOrX;
+    }
+
+    /**
+     * 滚动到阻尼计算后的目标偏移，合并 MOVE 事件时等到下一帧统一应用
+     *
+     * @param scrollYOrX 目标 scrollY or scrollX
+     */
+    private void applyDragOffset(float scrollYOrX) {
+        if (mIsMoveCoalescingEnabled) {
+            mPendingDragOffset = scrollYOrX;
+            mHasPendingDrag = true;
+            mDragFrameDriver.start();
+            return;
+        }
+        doScrollToDragOffset(scrollYOrX);
+    }
+
+    /**
+     * 滚动到拖动的目标偏移，只应用整数像素的变化，不足 1px 的部分留到下一次拖动
+     * 偏移没有变化时不执行滚动、回调和转换
+     *
+     * @param scrollYOrX 目标 scrollY or scrollX
+     */
+    private void doScrollToDragOffset(float scrollYOrX) {
+        int currentScrollYOrX = getOffset();
+        int targetScrollYOrX = Math.round(scrollYOrX);
+        if (targetScrollYOrX != currentScrollYOrX) {
+            doScrollBy(currentScrollYOrX - targetScrollYOrX);
+        }
+        mDragRemainderOffset = targetScrollYOrX;
+        mDragRemainder = scrollYOrX - targetScrollYOrX;
+    }
+
+    /**
+     * 把合并的 MOVE 事件一次性应用到布局，只执行一次偏移、回调和转换
+     */
+    private void flushPendingDrag() {
+        if (!mHasPendingDrag) {
+            return;
         }
+        mHasPendingDrag = false;
+        mDragFrameDriver.stop();
+        doScrollToDragOffset(mPendingDragOffset);
+        updateLastScroll();
+    }
+
+    /**
+     * 按照阻尼后的位移距离滚动
+     *
+     * @param dyOrDx 阻尼后的位移距离，偏移量需要减去此值
+     */
+    private void doScrollBy(int dyOrDx) {
+        stopSettle();
+        promoteMovingChildren();
+        offsetAlongAxis(-dyOrDx);
+        //偏移回调
+        onMovingAndStateCallback();
+        doOnScrollAndDrag();
+    }
+
+    /**
+     * 根据当前偏移计算阻尼后的位移距离（越拉越慢）
+     *
+     * @param deltaYOrX  手指移动距离 >0 下/右滑 <0 上/左滑
+     * @param scrollYOrX 当前的 scrollY or scrollX
+     * @return 阻尼后的位移距离，偏移量需要减去此值
+     */
+    private int getDragDistance(float deltaYOrX, int scrollYOrX) {
+        return roundDragDistance(getDampedDragDistance(deltaYOrX, scrollYOrX));
+    }
+
+    /**
+     * 根据当前偏移计算阻尼后的位移距离（越拉越慢），不取整
+     *
+     * @param deltaYOrX  手指移动距离 >0 下/右滑 <0 上/左滑
+     * @param scrollYOrX 当前的 scrollY or scrollX
+     * @return 阻尼后的位移距离，偏移量需要减去此值
+     */
+    private float getDampedDragDistance(float deltaYOrX, float scrollYOrX) {
         //根据下拉高度计算位移距离，（越拉越慢）
         float moveDyOrDx;
-        float deltaYOrX = isVertical() ? mDeltaY : mDeltaX;
-        int scrollYOrX = isVertical() ? getScrollY() : getScrollX();
         if (deltaYOrX > 0) {
             //下滑操作
             if (scrollYOrX <= 0) {
                 //当前需要显示Header
                 moveDyOrDx = (mHeaderMaxDragDistance + scrollYOrX) * 1.0f
                         / (mHeaderMaxDragDistance == 0 ? 1f : mHeaderMaxDragDistance) * deltaYOrX * mDragRate;
-                if (mIsDebug) {
-                    Log.d(TAG, "doScroll: 下/右滑操作，需要显示Header");
-                }
             } else {
                 //当前需要隐藏Footer
                 moveDyOrDx = (mFooterMaxDragDistance + scrollYOrX) * 1.0f
                         / (mFooterMaxDragDistance == 0 ? 1f : mFooterMaxDragDistance) * deltaYOrX * mDragRate;
-                if (mIsDebug) {
-                    Log.d(TAG, "doScroll: 下/右滑操作，需要隐藏Footer");
-                }
             }
         } else {
             //上滑操作
@@ -879,21 +1576,23 @@ public class PullExpandLayout extends HeaderFooterLayout {
                 //当前需要显示Footer
                 moveDyOrDx = (mFooterMaxDragDistance - scrollYOrX) * 1.0f
                         / (mFooterMaxDragDistance == 0 ? 1f : mFooterMaxDragDistance) * deltaYOrX * mDragRate;
-                if (mIsDebug) {
-                    Log.d(TAG, "doScroll: 上/左滑操作，需要显示Footer");
-                }
             } else {
                 //当前需要隐藏Header
                 moveDyOrDx = (mHeaderMaxDragDistance - scrollYOrX) * 1.0f
                         / (mHeaderMaxDragDistance == 0 ? 1f : mHeaderMaxDragDistance) * deltaYOrX * mDragRate;
-                if (mIsDebug) {
-                    Log.d(TAG, "doScroll: 上/左滑操作，需要隐藏Header");
-                }
             }
         }
-        if (mIsDebug) {
-            Log.d(TAG, "doScroll -moveDyOrDx:" + (-moveDyOrDx));
-        }
+        recordDebugEvent(DebugEventRecorder.EVENT_DAMPED_DRAG, -moveDyOrDx);
+        return moveDyOrDx;
+    }
+
+    /**
+     * 阻尼后的位移距离取整，远离 0 的方向取整
+     *
+     * @param moveDyOrDx 阻尼后的位移距离
+     * @return 取整后的位移距离
+     */
+    private int roundDragDistance(float moveDyOrDx) {
         //负数向上取整,Math.floor(-1.1)=-2, Math.floor(0.1)=0
         //正数向上取整,Math.ceil(0.1)=1, Math.ceil(-1.1)=-1
         int dyOrDx = 0;
@@ -902,37 +1601,30 @@ public class PullExpandLayout extends HeaderFooterLayout {
         } else if (moveDyOrDx > 0) {
             dyOrDx = (int) Math.ceil(moveDyOrDx);
         }
-        if (isVertical()) {
-            scrollBy(0, -dyOrDx);
-        } else {
-            scrollBy(-dyOrDx, 0);
-        }
-        //偏移回调
-        onMovingAndStateCallback();
-        doOnScrollAndDrag();
+        return dyOrDx;
     }
 
     /**
      * 执行快速滚动
      */
     private void doFastScroll() {
-        boolean isHeaderShow = isVertical() ? mLastScrollY < 0 : mLastScrollX < 0;
-        boolean isFooterShow = isVertical() ? mLastScrollY > 0 : mLastScrollX > 0;
+        float lastScrollYOrX = getLastScroll();
+        float deltaYOrX = getDelta();
+        boolean isHeaderShow = lastScrollYOrX < 0;
+        boolean isFooterShow = lastScrollYOrX > 0;
 
-        if (isHeaderShow
-                && (isVertical() ? mLastScrollY - mDeltaY > 0 : mLastScrollX - mDeltaX > 0)) {
+        if (isHeaderShow && lastScrollYOrX - deltaYOrX > 0) {
             //正在快速上/右滑，需要关闭header
             //在scrollTo 0 之前执行，为了防止快速滑动有可能会闪动一下，尤其是有背景的时候
             doOnScrollAndDrag(0);
-            scrollTo(0, 0);
+            offsetTo(0, 0);
             return;
         }
-        if (isFooterShow
-                && (isVertical() ? mLastScrollY - mDeltaY < 0 : mLastScrollX - mDeltaX < 0)) {
+        if (isFooterShow && lastScrollYOrX - deltaYOrX < 0) {
             //正在快速上/左滑，需要关闭footer
             //在scrollTo 0 之前执行，为了防止快速滑动有可能会闪动一下，尤其是有背景的时候
             doOnScrollAndDrag(0);
-            scrollTo(0, 0);
+            offsetTo(0, 0);
         }
         //偏移回调
         onMovingAndStateCallback();
@@ -942,7 +1634,7 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * 根据拖拽类型子滚动和拖拽的时候更新 Header Footer 状态
      */
     private void doOnScrollAndDrag() {
-        doOnScrollAndDrag(isVertical() ? getScrollY() : getScrollX());
+        doOnScrollAndDrag(getOffset());
     }
 
     /**
@@ -951,9 +1643,16 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @param scrollYOrX scrollY or scrollX
      */
     private void doOnScrollAndDrag(int scrollYOrX) {
+        PullExpandTrace.beginSection(PullExpandTrace.SECTION_DO_ON_SCROLL_AND_DRAG);
         if (mPullExpandTransformer == null) {
             mPullExpandTransformer = new DefaultPullExpandTransformer();
         }
+        //不处理偏移的转换器设置的平移量是相对于 scroll 偏移的，先去掉偏移对应的平移量
+        boolean isRemoveOffsetTranslation = mOffsetMode == OFFSET_MODE_TRANSLATION
+                && !(mPullExpandTransformer instanceof OffsetAwarePullExpandTransformer);
+        if (isRemoveOffsetTranslation) {
+            translateChildrenBy(mOffsetX, mOffsetY);
+        }
         if (mDragType == DRAG_TYPE_FIXED_BEHIND) {
             transformForFixedBehind(mOrientation, scrollYOrX);
         } else if (mDragType == DRAG_TYPE_FIXED_FOREGROUND) {
@@ -961,6 +1660,61 @@ public class PullExpandLayout extends HeaderFooterLayout {
         } else {
             transformNormal(mOrientation, DRAG_TYPE_TRANSLATE, scrollYOrX);
         }
+        if (isRemoveOffsetTranslation) {
+            translateChildrenBy(-mOffsetX, -mOffsetY);
+        }
+        updateHeaderFooterVisibility(scrollYOrX);
+        PullExpandTrace.endSection();
+    }
+
+    /**
+     * 偏移或者布局变化后更新 Header Footer 是否露出，变化时回调
+     *
+     * @param scrollYOrX scrollY or scrollX
+     */
+    private void updateHeaderFooterVisibility(int scrollYOrX) {
+        boolean isHeaderVisible = isPanelVisible(mHeaderView, scrollYOrX < 0);
+        boolean isFooterVisible = isPanelVisible(mFooterView, scrollYOrX > 0);
+        boolean isHeaderChanged = isHeaderVisible != mIsHeaderVisible;
+        boolean isFooterChanged = isFooterVisible != mIsFooterVisible;
+        mIsHeaderVisible = isHeaderVisible;
+        mIsFooterVisible = isFooterVisible;
+        if ((!isHeaderChanged && !isFooterChanged) || mOnPullExpandVisibilityListeners.isEmpty()) {
+            return;
+        }
+        Object[] listeners = mOnPullExpandVisibilityListeners.getEntries();
+        for (int i = 0; i < listeners.length; i++) {
+            OnPullExpandVisibilityListener listener = mOnPullExpandVisibilityListeners.get(listeners, i);
+            if (listener == null) {
+                continue;
+            }
+            if (isHeaderChanged) {
+                recordMetric(PullExpandMetrics.COUNTER_LISTENER_CALLS);
+                listener.onHeaderVisibilityChanged(this, isHeaderVisible);
+            }
+            if (isFooterChanged) {
+                recordMetric(PullExpandMetrics.COUNTER_LISTENER_CALLS);
+                listener.onFooterVisibilityChanged(this, isFooterVisible);
+            }
+        }
+    }
+
+    /**
+     * Header 或者 Footer 是否露出
+     *
+     * @param view     Header 或者 Footer
+     * @param isPulled 是否被拉出
+     * @return 是否露出
+     */
+    private boolean isPanelVisible(@Nullable View view, boolean isPulled) {
+        if (view == null || view.getVisibility() != VISIBLE) {
+            return false;
+        }
+        if (mDragType == DRAG_TYPE_FIXED_BEHIND) {
+            //在 Content 之后，没有拉出时被 Content 遮挡
+            return isPulled && isChildInViewport(view);
+        }
+        return isChildInViewport(view);
     }
 
     /**
@@ -970,20 +1724,23 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @param scrollYOrX  scrollY or scrollX
      */
     private void transformForFixedBehind(int orientation, int scrollYOrX) {
-        boolean isVertical = isVertical();
-        boolean isCallTransformHeader = isVertical ? getScrollY() <= 0 : getScrollX() <= 0;
-        boolean isCallTransformFooter = isVertical ? getScrollY() >= 0 : getScrollX() >= 0;
+        int offset = getOffset();
+        boolean isCallTransformHeader = offset <= 0;
+        boolean isCallTransformFooter = offset >= 0;
         if (mHeaderView != null && isCallTransformHeader) {
+            recordMetric(PullExpandMetrics.COUNTER_TRANSFORMER_CALLS);
             mPullExpandTransformer.transformHeader(this, orientation, DRAG_TYPE_FIXED_BEHIND, mHeaderView,
-                    isVertical ? mHeaderHeight : mHeaderWidth, scrollYOrX);
+                    getHeaderSize(), scrollYOrX);
         }
         if (mFooterView != null && isCallTransformFooter) {
+            recordMetric(PullExpandMetrics.COUNTER_TRANSFORMER_CALLS);
             mPullExpandTransformer.transformFooter(this, orientation, DRAG_TYPE_FIXED_BEHIND, mFooterView,
-                    isVertical ? mFooterHeight : mFooterWidth, scrollYOrX);
+                    getFooterSize(), scrollYOrX);
         }
         if (mContentView != null) {
+            recordMetric(PullExpandMetrics.COUNTER_TRANSFORMER_CALLS);
             mPullExpandTransformer.transformContent(this, orientation, DRAG_TYPE_FIXED_BEHIND, mContentView,
-                    isVertical ? getHeight() : getWidth(), scrollYOrX);
+                    mAxis.select(getWidth(), getHeight()), scrollYOrX);
         }
     }
 
@@ -995,46 +1752,130 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @param scrollYOrX  scrollY or scrollX
      */
     private void transformNormal(int orientation, int dragType, int scrollYOrX) {
-        boolean isVertical = isVertical();
-        if (mHeaderView != null) {
+        //上一次已经在可见区域之外并且仍然没有被拉出的，跳过回调
+        boolean isSkipHeader = mIsSkipOffscreenTransform && scrollYOrX >= 0 && !mIsHeaderVisible;
+        boolean isSkipFooter = mIsSkipOffscreenTransform && scrollYOrX <= 0 && !mIsFooterVisible;
+        if (mHeaderView != null && !isSkipHeader) {
+            recordMetric(PullExpandMetrics.COUNTER_TRANSFORMER_CALLS);
             mPullExpandTransformer.transformHeader(this, orientation, dragType, mHeaderView,
-                    isVertical ? mHeaderHeight : mHeaderWidth, scrollYOrX);
+                    getHeaderSize(), scrollYOrX);
         }
-        if (mFooterView != null) {
+        if (mFooterView != null && !isSkipFooter) {
+            recordMetric(PullExpandMetrics.COUNTER_TRANSFORMER_CALLS);
             mPullExpandTransformer.transformFooter(this, orientation, dragType, mFooterView,
-                    isVertical ? mFooterHeight : mFooterWidth, scrollYOrX);
+                    getFooterSize(), scrollYOrX);
         }
         if (mContentView != null) {
+            recordMetric(PullExpandMetrics.COUNTER_TRANSFORMER_CALLS);
             mPullExpandTransformer.transformContent(this, orientation, dragType, mContentView,
-                    isVertical ? getHeight() : getWidth(), scrollYOrX);
+                    mAxis.select(getWidth(), getHeight()), scrollYOrX);
         }
     }
 
-    @Override
-    public void computeScroll() {
-        super.computeScroll();
-        if (mScroller.computeScrollOffset()) {
-            mIsComputeScrollCanCheckState = true;
-            if (isVertical()) {
-                scrollTo(0, mScroller.getCurrY());
-            } else {
-                scrollTo(mScroller.getCurrX(), 0);
-            }
+    /**
+     * 执行一帧松手后的动画，由 {@link AnimationFrameDriver} 在每个 vsync 调用
+     *
+     * @return 是否还需要下一帧
+     */
+    private boolean doSettleFrame() {
+        if (mSettleEngine.computeOffset()) {
+            setOffset(mSettleEngine.getCurrOffset());
             onMovingAndStateCallback();
             doOnScrollAndDrag();
-            mLastScrollY = getScrollY();
-            mLastScrollX = getScrollX();
-            ViewCompat.postInvalidateOnAnimation(this);
+            updateLastScroll();
+        }
+        if (mSettleEngine.isFinished()) {
+            recordSettleDuration();
+            //动画结束时同步最终状态，不依赖结束后的绘制
+            checkSettledState();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 停止松手后的动画
+     */
+    private void stopSettle() {
+        if (!mSettleEngine.isFinished()) {
+            mSettleEngine.forceFinished();
+        }
+        mSettleFrameDriver.stop();
+        //被打断的动画不统计时长
+        mSettleStartTime = -1;
+    }
+
+    /**
+     * 记录调试事件，关闭 debug 模式时只有一次判空
+     *
+     * @param event 事件 DebugEventRecorder.EVENT_XXX
+     * @param delta 事件相关的位移或者速度，没有时为 0
+     */
+    private void recordDebugEvent(int event, float delta) {
+        if (mDebugEventRecorder != null) {
+            mDebugEventRecorder.record(event, mAnimationTimeSource.currentTimeMillis(), getOffset(),
+                    delta, mCurrentHeaderState, mCurrentFooterState);
+        }
+    }
+
+    /**
+     * 性能统计计数器加一，关闭统计时只有一次判空
+     *
+     * @param counter 计数器
+     */
+    private void recordMetric(int counter) {
+        if (mMetrics != null) {
+            mMetrics.increment(counter);
+        }
+    }
+
+    /**
+     * 记录还没有被绘制的输入事件时间，下一帧统计输入延迟
+     *
+     * @param event MotionEvent
+     */
+    private void markInputEvent(MotionEvent event) {
+        if (mPendingInputEventTime < 0) {
+            mPendingInputEventTime = event.getEventTime();
+            mInputLatencyDriver.start();
+        }
+    }
+
+    /**
+     * 统计从输入事件到下一帧的延迟，帧时间与 MotionEvent#getEventTime 同为 uptimeMillis 时钟
+     *
+     * @param frameTimeMillis 下一帧开始的时间
+     */
+    private void recordInputLatency(long frameTimeMillis) {
+        if (mMetrics != null && mPendingInputEventTime >= 0) {
+            mMetrics.record(PullExpandMetrics.HISTOGRAM_INPUT_LATENCY,
+                    frameTimeMillis - mPendingInputEventTime);
+        }
+        mPendingInputEventTime = -1;
+    }
+
+    /**
+     * 松手动画结束时统计时长
+     */
+    private void recordSettleDuration() {
+        if (mMetrics != null && mSettleStartTime >= 0) {
+            mMetrics.record(PullExpandMetrics.HISTOGRAM_SETTLE_DURATION,
+                    mAnimationTimeSource.currentTimeMillis() - mSettleStartTime);
         }
+        mSettleStartTime = -1;
+    }
 
-        if (mIsComputeScrollCanCheckState && !mIsFingerTouched
-                && mScroller.isFinished()) {
+    /**
+     * 手指抬起并且动画结束后同步 Header 和 Footer 的最终状态
+     * 只在松手动画结束和手势结束时调用，不依赖绘制流程，contentView 自身滚动时不会触发
+     */
+    private void checkSettledState() {
+        if (mIsStateCheckPending && !mIsFingerTouched
+                && mSettleEngine.isFinished()) {
+            mIsStateCheckPending = false;
             checkFinalHeaderFooterState();
-            if (mIsDebug) {
-                Log.d(TAG, "computeScroll check state finish.header:"
-                        + mIsHeaderExpanded + ",footer:" + mIsFooterExpanded);
-            }
-            mIsComputeScrollCanCheckState = false;
+            demoteMovingChildren();
+            recordDebugEvent(DebugEventRecorder.EVENT_SETTLED, 0);
         }
     }
 
@@ -1044,11 +1885,51 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @param isAnimateScroll 是否动画滚动
      */
     private void computeScrollToState(boolean isAnimateScroll) {
+        computeScrollToState(isAnimateScroll, 0f);
+    }
+
+    /**
+     * 通过计算 scrollY or scrollX 以及松手时的速度来判断滚动到最终态
+     *
+     * @param isAnimateScroll 是否动画滚动
+     * @param velocityYOrX    松手时手指的速度 >0 下/右滑 <0 上/左滑
+     */
+    private void computeScrollToState(boolean isAnimateScroll, float velocityYOrX) {
+        PullExpandTrace.beginSection(PullExpandTrace.SECTION_COMPUTE_SCROLL_TO_STATE);
+        computeScrollToStateInternal(isAnimateScroll, velocityYOrX);
+        PullExpandTrace.endSection();
+    }
+
+    /**
+     * 通过计算 scrollY or scrollX 以及松手时的速度来判断滚动到最终态
+     *
+     * @param isAnimateScroll 是否动画滚动
+     * @param velocityYOrX    松手时手指的速度 >0 下/右滑 <0 上/左滑
+     */
+    private void computeScrollToStateInternal(boolean isAnimateScroll, float velocityYOrX) {
         mIsInSelfControl = false;
-        boolean isVertical = isVertical();
-        int scrollYOrX = isVertical ? getScrollY() : getScrollX();
-        int headerHeightOrWidth = isVertical ? mHeaderHeight : mHeaderWidth;
-        int footerHeightOrWidth = isVertical ? mFooterHeight : mFooterWidth;
+        int scrollYOrX = getOffset();
+        //快速滑动松手，按照滑动方向打开或者关闭当前拉出的 Header 或者 Footer
+        //只处理当前拉出的一侧，不会因为快速滑动拉出另一侧
+        if (mIsFlingReleaseEnabled && scrollYOrX != 0
+                && Math.abs(velocityYOrX) >= mMinFlingVelocity) {
+            if (scrollYOrX < 0) {
+                if (velocityYOrX > 0) {
+                    openHeader(isAnimateScroll, velocityYOrX);
+                } else {
+                    closeHeaderOrFooter(isAnimateScroll, velocityYOrX);
+                }
+            } else {
+                if (velocityYOrX < 0) {
+                    openFooter(isAnimateScroll, velocityYOrX);
+                } else {
+                    closeHeaderOrFooter(isAnimateScroll, velocityYOrX);
+                }
+            }
+            return;
+        }
+        int headerHeightOrWidth = getHeaderSize();
+        int footerHeightOrWidth = getFooterSize();
         //header完全展开了，并且向上推的高度>mHeaderShownThreshold 表示关闭
         if (mIsHeaderExpanded && scrollYOrX < 0
                 && headerHeightOrWidth + scrollYOrX > mHeaderDragThreshold
@@ -1079,10 +1960,11 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * 检查当前Header Footer的状态
      */
     private void checkFinalHeaderFooterState() {
+        PullExpandTrace.beginSection(PullExpandTrace.SECTION_CHECK_FINAL_STATE);
         //停止滚动确定一下状态
         int lastHeaderState = mCurrentHeaderState;
         int lastFooterState = mCurrentFooterState;
-        int scrollYOrX = isVertical() ? getScrollY() : getScrollX();
+        int scrollYOrX = getOffset();
         if (scrollYOrX > 0) {
             mIsHeaderExpanded = false;
             mIsFooterExpanded = true;
@@ -1103,6 +1985,8 @@ public class PullExpandLayout extends HeaderFooterLayout {
         callHeaderAndFooterChangedListeners(false, -1);
 
         callHeaderAndFooterStateListeners(lastHeaderState, lastFooterState);
+        markStateDispatched(scrollYOrX);
+        PullExpandTrace.endSection();
     }
 
     /**
@@ -1111,11 +1995,17 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @param isAnimateScroll 是否动画滚动
      */
     private void openHeader(boolean isAnimateScroll) {
-        if (isVertical()) {
-            startScrollY(getScrollY(), -(getScrollY() + mHeaderHeight), isAnimateScroll);
-        } else {
-            startScrollX(getScrollX(), -(getScrollX() + mHeaderWidth), isAnimateScroll);
-        }
+        openHeader(isAnimateScroll, 0f);
+    }
+
+    /**
+     * 打开Header
+     *
+     * @param isAnimateScroll 是否动画滚动
+     * @param velocityYOrX    起始速度
+     */
+    private void openHeader(boolean isAnimateScroll, float velocityYOrX) {
+        startScroll(getOffset(), -(getOffset() + getHeaderSize()), isAnimateScroll, velocityYOrX);
     }
 
     /**
@@ -1133,11 +2023,17 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @param isAnimateScroll 是否动画滚动
      */
     private void openFooter(boolean isAnimateScroll) {
-        if (isVertical()) {
-            startScrollY(getScrollY(), mFooterHeight - getScrollY(), isAnimateScroll);
-        } else {
-            startScrollX(getScrollX(), mFooterWidth - getScrollX(), isAnimateScroll);
-        }
+        openFooter(isAnimateScroll, 0f);
+    }
+
+    /**
+     * 打开 Footer
+     *
+     * @param isAnimateScroll 是否动画滚动
+     * @param velocityYOrX    起始速度
+     */
+    private void openFooter(boolean isAnimateScroll, float velocityYOrX) {
+        startScroll(getOffset(), getFooterSize() - getOffset(), isAnimateScroll, velocityYOrX);
     }
 
     /**
@@ -1155,41 +2051,82 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @param isAnimateScroll 是否动画滚动
      */
     private void closeHeaderOrFooter(boolean isAnimateScroll) {
-        if (isVertical()) {
-            startScrollY(getScrollY(), -getScrollY(), isAnimateScroll);
-        } else {
-            startScrollX(getScrollX(), -getScrollX(), isAnimateScroll);
-        }
+        closeHeaderOrFooter(isAnimateScroll, 0f);
+    }
+
+    /**
+     * 关闭 Header 或者 Footer
+     *
+     * @param isAnimateScroll 是否动画滚动
+     * @param velocityYOrX    起始速度
+     */
+    private void closeHeaderOrFooter(boolean isAnimateScroll, float velocityYOrX) {
+        startScroll(getOffset(), -getOffset(), isAnimateScroll, velocityYOrX);
     }
 
     /**
-     * 通过Scroller滚动Y方向
+     * 通过动画引擎滚动到目标位置
      *
-     * @param startY          startY
-     * @param dy              delta y
+     * @param startYOrX       startY or startX
+     * @param dyOrDx          delta y or delta x
      * @param isAnimateScroll 是否执行动画滚动
+     * @param velocityYOrX    手指的速度 >0 下/右滑 <0 上/左滑
+     */
+    private void startScroll(int startYOrX, int dyOrDx, boolean isAnimateScroll, float velocityYOrX) {
+        int finalYOrX = startYOrX + dyOrDx;
+        if (isAnimateScroll && velocityYOrX == 0 && !mSettleEngine.isFinished()) {
+            //动画过程中目标发生变化（比如展开时 Header 尺寸变化），保持当前速度滚动到新的目标
+            if (mSettleEngine.getFinalOffset() != finalYOrX) {
+                mSettleEngine.retarget(finalYOrX);
+            }
+        } else {
+            //手指下/右滑时 scroll 减小，所以偏移的速度和手指速度方向相反
+            mSettleEngine.start(startYOrX, finalYOrX, -velocityYOrX, isAnimateScroll);
+        }
+        if (isAnimateScroll) {
+            promoteMovingChildren();
+            if (mMetrics != null && mSettleStartTime < 0) {
+                mSettleStartTime = mAnimationTimeSource.currentTimeMillis();
+            }
+        }
+        mSettleFrameDriver.start();
+    }
+
+    /**
+     * 拖动或者动画开始时把子 View 提升为硬件层
      */
-    private void startScrollY(int startY, int dy, boolean isAnimateScroll) {
-        if (!mScroller.isFinished()) {
-            mScroller.forceFinished(true);
+    private void promoteMovingChildren() {
+        if (!mIsHardwareLayerEnabled || mIsLayerPromotionTried) {
+            return;
         }
-        mScroller.startScroll(0, startY, 0, dy, isAnimateScroll ? 300 : 16);
-        ViewCompat.postInvalidateOnAnimation(this);
+        mIsLayerPromotionTried = true;
+        mHardwareLayerHelper.promote(mHeaderView);
+        mHardwareLayerHelper.promote(mFooterView);
+        mHardwareLayerHelper.promote(mContentView);
+    }
+
+    /**
+     * 状态确定后恢复子 View 的 layerType
+     */
+    private void demoteMovingChildren() {
+        mIsLayerPromotionTried = false;
+        mHardwareLayerHelper.demoteAll();
     }
 
     /**
-     * 通过Scroller滚动x方向
+     * 创建动画引擎
      *
-     * @param startX          startX
-     * @param dx              delta x
-     * @param isAnimateScroll 是否执行动画滚动
+     * @param settleMode 动画引擎类型
+     * @return 动画引擎
      */
-    private void startScrollX(int startX, int dx, boolean isAnimateScroll) {
-        if (!mScroller.isFinished()) {
-            mScroller.forceFinished(true);
+    private SettleEngine createSettleEngine(@SettleMode int settleMode) {
+        if (settleMode == SETTLE_MODE_SCROLLER) {
+            return new ScrollerSettleEngine(mAnimationTimeSource);
         }
-        mScroller.startScroll(startX, 0, dx, 0, isAnimateScroll ? 300 : 16);
-        ViewCompat.postInvalidateOnAnimation(this);
+        SpringSettleEngine springSettleEngine = new SpringSettleEngine(mAnimationTimeSource);
+        springSettleEngine.setStiffness(mSpringStiffness);
+        springSettleEngine.setDampingRatio(mSpringDampingRatio);
+        return springSettleEngine;
     }
 
     /**
@@ -1205,10 +2142,11 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @param isCallMoving 是否执行 xxMoving 回调
      */
     private void onMovingAndStateCallback(boolean isCallMoving) {
-        int scrollYOrX = isVertical() ? getScrollY() : getScrollX();
+        PullExpandTrace.beginSection(PullExpandTrace.SECTION_DISPATCH_LISTENERS);
+        int scrollYOrX = getOffset();
         int absScrollY = Math.abs(scrollYOrX);
-        boolean isExpanding = absScrollY > Math.abs(isVertical() ? mLastScrollY : mLastScrollX);
-        boolean isCollapsing = absScrollY < Math.abs(isVertical() ? mLastScrollY : mLastScrollX);
+        boolean isExpanding = absScrollY > Math.abs(getLastScroll());
+        boolean isCollapsing = absScrollY < Math.abs(getLastScroll());
 
         if (scrollYOrX < 0) {
             //操作Header
@@ -1239,6 +2177,34 @@ public class PullExpandLayout extends HeaderFooterLayout {
             callHeaderAndFooterChangedListeners(isCallMoving, scrollYOrX);
             callHeaderAndFooterStateListeners(lastHeaderState, lastFooterState);
         }
+        markStateDispatched(scrollYOrX);
+        PullExpandTrace.endSection();
+    }
+
+    /**
+     * 记录最后一次分发回调时的偏移和状态
+     *
+     * @param scrollYOrX scrollY or scrollX
+     */
+    private void markStateDispatched(int scrollYOrX) {
+        mIsStateDispatched = true;
+        mDispatchedOffset = scrollYOrX;
+        mDispatchedHeaderState = mCurrentHeaderState;
+        mDispatchedFooterState = mCurrentFooterState;
+        PullExpandTrace.setCounter(PullExpandTrace.COUNTER_HEADER_STATE, mCurrentHeaderState);
+        PullExpandTrace.setCounter(PullExpandTrace.COUNTER_FOOTER_STATE, mCurrentFooterState);
+    }
+
+    /**
+     * 偏移或状态相对于最后一次分发是否发生了变化
+     *
+     * @return 是否需要分发
+     */
+    private boolean isStateDispatchNeeded() {
+        return !mIsStateDispatched
+                || mDispatchedOffset != getOffset()
+                || mDispatchedHeaderState != mCurrentHeaderState
+                || mDispatchedFooterState != mCurrentFooterState;
     }
 
     /**
@@ -1284,37 +2250,148 @@ public class PullExpandLayout extends HeaderFooterLayout {
      */
     private void callHeaderAndFooterChangedListeners(boolean isCallMoving, int scrollYOrX,
                                                      boolean isCallHeader, boolean isCallFooter) {
-        int headerHeightOrWidth = isVertical() ? mHeaderHeight : mHeaderWidth;
-        int footerHeightOrWidth = isVertical() ? mFooterHeight : mFooterWidth;
-        if (mOnPullExpandChangedListeners != null) {
-            for (OnPullExpandChangedListener onPullExpandChangedListener : mOnPullExpandChangedListeners) {
+        if (mDispatchMode == DISPATCH_MODE_TRANSITION) {
+            callChangedListenersOnTransition(isCallMoving, scrollYOrX, isCallHeader, isCallFooter);
+            return;
+        }
+        int headerHeightOrWidth = getHeaderSize();
+        int footerHeightOrWidth = getFooterSize();
+        if (!mOnPullExpandChangedListeners.isEmpty()) {
+            //使用下标遍历，避免每次回调都创建 Iterator
+            Object[] listeners = mOnPullExpandChangedListeners.getEntries();
+            for (int i = 0; i < listeners.length; i++) {
+                OnPullExpandChangedListener onPullExpandChangedListener = mOnPullExpandChangedListeners.get(listeners, i);
+                if (onPullExpandChangedListener == null) {
+                    continue;
+                }
                 if (isCallHeader && mHeaderView != null) {
                     if (isCallMoving) {
+                        recordMetric(PullExpandMetrics.COUNTER_LISTENER_CALLS);
                         onPullExpandChangedListener.onHeaderMoving(mOrientation, Math.abs(scrollYOrX) * 1.0f / headerHeightOrWidth,
                                 Math.abs(scrollYOrX), headerHeightOrWidth, mHeaderMaxDragDistance);
                     }
+                    recordMetric(PullExpandMetrics.COUNTER_LISTENER_CALLS);
                     onPullExpandChangedListener.onHeaderStateChanged(this, mCurrentHeaderState);
                 }
                 if (isCallFooter && mFooterView != null) {
                     if (isCallMoving) {
+                        recordMetric(PullExpandMetrics.COUNTER_LISTENER_CALLS);
                         onPullExpandChangedListener.onFooterMoving(mOrientation, Math.abs(scrollYOrX) * 1.0f / footerHeightOrWidth,
                                 Math.abs(scrollYOrX), footerHeightOrWidth, mFooterMaxDragDistance);
                     }
+                    recordMetric(PullExpandMetrics.COUNTER_LISTENER_CALLS);
                     onPullExpandChangedListener.onFooterStateChanged(this, mCurrentFooterState);
                 }
             }
         }
     }
 
+    /**
+     * DISPATCH_MODE_TRANSITION 时执行 Header Footer 变化回调
+     * onXxMoving 合并到下一帧，onXxStateChanged 只在状态变化时立即回调
+     *
+     * @param isCallMoving 是否回调 onXxMoving 方法
+     * @param scrollYOrX   scrollY or scrollX
+     * @param isCallHeader 是否回调 Header 方法
+     * @param isCallFooter 是否回调 Footer 方法
+     */
+    private void callChangedListenersOnTransition(boolean isCallMoving, int scrollYOrX,
+                                                  boolean isCallHeader, boolean isCallFooter) {
+        boolean isCallHeaderState = isCallHeader && mHeaderView != null
+                && mCurrentHeaderState != mChangedHeaderState;
+        boolean isCallFooterState = isCallFooter && mFooterView != null
+                && mCurrentFooterState != mChangedFooterState;
+        if (isCallMoving) {
+            if (isCallHeader && mHeaderView != null) {
+                mPendingHeaderMovingOffset = Math.abs(scrollYOrX);
+            }
+            if (isCallFooter && mFooterView != null) {
+                mPendingFooterMovingOffset = Math.abs(scrollYOrX);
+            }
+            mMovingDispatchDriver.start();
+        }
+        if (!isCallHeaderState && !isCallFooterState) {
+            return;
+        }
+        //状态变化前先回调还没有回调的移动距离，保证回调顺序与偏移变化一致
+        flushPendingMoving();
+        if (isCallHeaderState) {
+            mChangedHeaderState = mCurrentHeaderState;
+        }
+        if (isCallFooterState) {
+            mChangedFooterState = mCurrentFooterState;
+        }
+        if (mOnPullExpandChangedListeners.isEmpty()) {
+            return;
+        }
+        Object[] listeners = mOnPullExpandChangedListeners.getEntries();
+        for (int i = 0; i < listeners.length; i++) {
+            OnPullExpandChangedListener onPullExpandChangedListener = mOnPullExpandChangedListeners.get(listeners, i);
+            if (onPullExpandChangedListener == null) {
+                continue;
+            }
+            if (isCallHeaderState) {
+                recordMetric(PullExpandMetrics.COUNTER_LISTENER_CALLS);
+                onPullExpandChangedListener.onHeaderStateChanged(this, mCurrentHeaderState);
+            }
+            if (isCallFooterState) {
+                recordMetric(PullExpandMetrics.COUNTER_LISTENER_CALLS);
+                onPullExpandChangedListener.onFooterStateChanged(this, mCurrentFooterState);
+            }
+        }
+    }
+
+    /**
+     * 回调等待中的 onXxMoving，只回调最新的移动距离
+     */
+    private void flushPendingMoving() {
+        mMovingDispatchDriver.stop();
+        int headerMovingOffset = mPendingHeaderMovingOffset;
+        int footerMovingOffset = mPendingFooterMovingOffset;
+        mPendingHeaderMovingOffset = -1;
+        mPendingFooterMovingOffset = -1;
+        if (mOnPullExpandChangedListeners.isEmpty()
+                || (headerMovingOffset < 0 && footerMovingOffset < 0)) {
+            return;
+        }
+        int headerHeightOrWidth = getHeaderSize();
+        int footerHeightOrWidth = getFooterSize();
+        Object[] listeners = mOnPullExpandChangedListeners.getEntries();
+        for (int i = 0; i < listeners.length; i++) {
+            OnPullExpandChangedListener onPullExpandChangedListener = mOnPullExpandChangedListeners.get(listeners, i);
+            if (onPullExpandChangedListener == null) {
+                continue;
+            }
+            if (headerMovingOffset >= 0 && mHeaderView != null) {
+                recordMetric(PullExpandMetrics.COUNTER_LISTENER_CALLS);
+                onPullExpandChangedListener.onHeaderMoving(mOrientation, headerMovingOffset * 1.0f / headerHeightOrWidth,
+                        headerMovingOffset, headerHeightOrWidth, mHeaderMaxDragDistance);
+            }
+            if (footerMovingOffset >= 0 && mFooterView != null) {
+                recordMetric(PullExpandMetrics.COUNTER_LISTENER_CALLS);
+                onPullExpandChangedListener.onFooterMoving(mOrientation, footerMovingOffset * 1.0f / footerHeightOrWidth,
+                        footerMovingOffset, footerHeightOrWidth, mFooterMaxDragDistance);
+            }
+        }
+    }
+
     /**
      * 执行 onRelease 回调
      */
     private void callReleaseChangedListeners() {
-        if (mOnPullExpandChangedListeners != null) {
-            for (OnPullExpandChangedListener onPullExpandChangedListener : mOnPullExpandChangedListeners) {
+        if (!mOnPullExpandChangedListeners.isEmpty()) {
+            PullExpandTrace.beginSection(PullExpandTrace.SECTION_DISPATCH_LISTENERS);
+            Object[] listeners = mOnPullExpandChangedListeners.getEntries();
+            for (int i = 0; i < listeners.length; i++) {
+                OnPullExpandChangedListener onPullExpandChangedListener = mOnPullExpandChangedListeners.get(listeners, i);
+                if (onPullExpandChangedListener == null) {
+                    continue;
+                }
+                recordMetric(PullExpandMetrics.COUNTER_LISTENER_CALLS);
                 onPullExpandChangedListener.onReleased(this,
-                        isVertical() ? getScrollY() : getScrollX());
+                        getOffset());
             }
+            PullExpandTrace.endSection();
         }
     }
 
@@ -1358,12 +2435,19 @@ public class PullExpandLayout extends HeaderFooterLayout {
     private void callHeaderAndFooterStateListeners(boolean isCallHeader, int lastHeaderState,
                                                    boolean isCallFooter, int lastFooterState) {
         //只有不相等的时候才调用
-        if (mOnPullExpandStateListeners != null) {
-            for (OnPullExpandStateListener onPullExpandStateListener : mOnPullExpandStateListeners) {
+        if (!mOnPullExpandStateListeners.isEmpty()) {
+            Object[] listeners = mOnPullExpandStateListeners.getEntries();
+            for (int i = 0; i < listeners.length; i++) {
+                OnPullExpandStateListener onPullExpandStateListener = mOnPullExpandStateListeners.get(listeners, i);
+                if (onPullExpandStateListener == null) {
+                    continue;
+                }
                 if (isCallHeader && mHeaderView != null && lastHeaderState != mCurrentHeaderState) {
+                    recordMetric(PullExpandMetrics.COUNTER_LISTENER_CALLS);
                     onPullExpandStateListener.onHeaderStateChanged(this, mCurrentHeaderState);
                 }
                 if (isCallFooter && mFooterView != null && lastFooterState != mCurrentFooterState) {
+                    recordMetric(PullExpandMetrics.COUNTER_LISTENER_CALLS);
                     onPullExpandStateListener.onFooterStateChanged(this, mCurrentFooterState);
                 }
             }
@@ -1374,133 +2458,284 @@ public class PullExpandLayout extends HeaderFooterLayout {
         return mOrientation == VERTICAL;
     }
 
+    @Override
+    public void setOrientation(int orientation) {
+        if (isFourEdgeMode()) {
+            //四边模式下需要先收起当前方向
+            switchOrientationForExpand(orientation);
+            return;
+        }
+        super.setOrientation(orientation);
+        mAxis = Axis.of(mOrientation);
+        mIsDragThresholdDirty = true;
+    }
+
     /**
-     * 获取 Header 高度
+     * 获取布局方向上的偏移，<0 Header 拉出 >0 Footer 拉出
      *
-     * @return Header 高度
+     * @return scrollY or scrollX
      */
-    public int getHeaderHeight() {
-        return mHeaderHeight;
+    private int getOffset() {
+        if (mOffsetMode == OFFSET_MODE_TRANSLATION) {
+            return mAxis.select(mOffsetX, mOffsetY);
+        }
+        return mAxis.select(getScrollX(), getScrollY());
     }
 
     /**
-     * 获取 Header 宽度
+     * 偏移到布局方向上的指定位置
      *
-     * @return Header 宽度
+     * @param scrollYOrX scrollY or scrollX
      */
-    public int getHeaderWidth() {
-        return mHeaderWidth;
+    private void setOffset(int scrollYOrX) {
+        offsetTo(mAxis.toX(scrollYOrX), mAxis.toY(scrollYOrX));
     }
 
     /**
-     * 获取 Footer 高度
+     * 在布局方向上偏移
      *
-     * @return Footer 高度
+     * @param dyOrDx delta y or delta x
      */
-    public int getFooterHeight() {
-        return mFooterHeight;
+    private void offsetAlongAxis(int dyOrDx) {
+        offsetBy(mAxis.toX(dyOrDx), mAxis.toY(dyOrDx));
     }
 
     /**
-     * 获取 Footer 宽度
-     *
-     * @return Footer 宽度
+     * 记录当前偏移，用于判断展开还是收起
      */
-    public int getFooterWidth() {
-        return mFooterWidth;
+    private void updateLastScroll() {
+        mLastScrollY = getOffsetY();
+        mLastScrollX = getOffsetX();
     }
 
     /**
-     * Header 是否展开
-     *
-     * @return Header 是否展开
+     * @return 布局方向上的上一次偏移
      */
-    public boolean isHeaderExpanded() {
-        return mIsHeaderExpanded;
+    private float getLastScroll() {
+        return mAxis.select(mLastScrollX, mLastScrollY);
     }
 
     /**
-     * Footer 是否展开
-     *
-     * @return Footer 是否展开
+     * @return 布局方向上的手指移动距离
      */
-    public boolean isFooterExpanded() {
-        return mIsFooterExpanded;
+    private float getDelta() {
+        return mAxis.select(mDeltaX, mDeltaY);
     }
 
     /**
-     * 设置拖拽类型
-     *
-     * @param dragType 拖拽类型
+     * @return 垂直方向为 Header 高度，水平方向为 Header 宽度
      */
-    public void setDragType(@DragType int dragType) {
-        mDragType = dragType;
-        requestLayout();
+    private int getHeaderSize() {
+        return mAxis.select(mHeaderWidth, mHeaderHeight);
     }
 
     /**
-     * 设置拖拽的阻尼系数 越接近0越吃力
-     *
-     * @param dragRate 阻尼系数
+     * @return 垂直方向为 Footer 高度，水平方向为 Footer 宽度
      */
-    public void setDragRate(@FloatRange(from = 0f, to = 1f) float dragRate) {
-        mDragRate = dragRate;
+    private int getFooterSize() {
+        return mAxis.select(mFooterWidth, mFooterHeight);
     }
 
     /**
-     * Header 拖动时打开/关闭的临界值
+     * 获取 Y 方向的偏移，<0 Header 拉出 >0 Footer 拉出
      *
-     * @param headerDragThreshold 临界值
+     * @return offset y
      */
-    public void setHeaderDragThreshold(int headerDragThreshold) {
-        if (headerDragThreshold > 0) {
-            mHeaderDragThreshold = headerDragThreshold;
-        }
+    private int getOffsetY() {
+        return mOffsetMode == OFFSET_MODE_TRANSLATION ? mOffsetY : getScrollY();
     }
 
     /**
-     * 设置 Header 的 drag threshold rate
+     * 获取 X 方向的偏移，<0 Header 拉出 >0 Footer 拉出
      *
-     * @param headerDragThresholdRate Header 拖拽比率
+     * @return offset x
      */
-    public void setHeaderDragThresholdRate(@FloatRange(from = 0f, to = 1f) float headerDragThresholdRate) {
-        mHeaderDragThresholdRate = getDragThresholdRateInRange(headerDragThresholdRate);
-        if (mHeaderDragThresholdRate != 0) {
-            mHeaderDragThreshold = (int) (isVertical() ? mHeaderHeight * mHeaderDragThresholdRate
-                    : mHeaderWidth * mHeaderDragThresholdRate);
-        }
+    private int getOffsetX() {
+        return mOffsetMode == OFFSET_MODE_TRANSLATION ? mOffsetX : getScrollX();
     }
 
     /**
-     * Footer 拖动时打开/关闭的临界值
+     * 偏移到指定位置
+     * OFFSET_MODE_SCROLL 时滚动整个 PullExpandLayout，
+     * OFFSET_MODE_TRANSLATION 时平移子 View，只更新 RenderNode 属性，不需要重新记录绘制内容
      *
-     * @param footerDragThreshold 临界值
+     * @param x offset x
+     * @param y offset y
      */
-    public void setFooterDragThreshold(int footerDragThreshold) {
-        if (footerDragThreshold > 0) {
-            mFooterDragThreshold = footerDragThreshold;
+    private void offsetTo(int x, int y) {
+        if (x == getOffsetX() && y == getOffsetY()) {
+            return;
+        }
+        mIsStateCheckPending = true;
+        recordMetric(PullExpandMetrics.COUNTER_OFFSET_UPDATES);
+        if (mOffsetMode != OFFSET_MODE_TRANSLATION) {
+            scrollTo(x, y);
+            PullExpandTrace.setCounter(PullExpandTrace.COUNTER_OFFSET, mAxis.select(x, y));
+            return;
         }
+        translateChildrenBy(mOffsetX - x, mOffsetY - y);
+        mOffsetX = x;
+        mOffsetY = y;
+        PullExpandTrace.setCounter(PullExpandTrace.COUNTER_OFFSET, mAxis.select(x, y));
     }
 
     /**
-     * 设置 Footer 的 drag threshold rate
+     * 在当前偏移的基础上偏移
      *
-     * @param footerDragThresholdRate footer 拖拽比率
+     * @param dx delta x
+     * @param dy delta y
      */
-    public void setFooterDragThresholdRate(@FloatRange(from = 0f, to = 1f) float footerDragThresholdRate) {
-        mFooterDragThresholdRate = getDragThresholdRateInRange(footerDragThresholdRate);
-        if (mFooterDragThresholdRate != 0) {
-            mFooterDragThreshold = (int) (isVertical() ? mFooterHeight * mFooterDragThresholdRate
-                    : mFooterWidth * mFooterDragThresholdRate);
-        }
+    private void offsetBy(int dx, int dy) {
+        offsetTo(getOffsetX() + dx, getOffsetY() + dy);
     }
 
     /**
-     * Header 最大拖动距离
+     * 平移所有子 View
      *
-     * @param headerMaxDragDistance 最大拖动距离
+     * @param dx delta translationX
+     * @param dy delta translationY
      */
-    public void setHeaderMaxDragDistance(int headerMaxDragDistance) {
+    private void translateChildrenBy(int dx, int dy) {
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (dx != 0) {
+                child.setTranslationX(child.getTranslationX() + dx);
+            }
+            if (dy != 0) {
+                child.setTranslationY(child.getTranslationY() + dy);
+            }
+        }
+    }
+
+    /**
+     * 获取 Header 高度
+     *
+     * @return Header 高度
+     */
+    public int getHeaderHeight() {
+        return mHeaderHeight;
+    }
+
+    /**
+     * 获取 Header 宽度
+     *
+     * @return Header 宽度
+     */
+    public int getHeaderWidth() {
+        return mHeaderWidth;
+    }
+
+    /**
+     * 获取 Footer 高度
+     *
+     * @return Footer 高度
+     */
+    public int getFooterHeight() {
+        return mFooterHeight;
+    }
+
+    /**
+     * 获取 Footer 宽度
+     *
+     * @return Footer 宽度
+     */
+    public int getFooterWidth() {
+        return mFooterWidth;
+    }
+
+    /**
+     * Header 是否展开
+     *
+     * @return Header 是否展开
+     */
+    public boolean isHeaderExpanded() {
+        return mIsHeaderExpanded;
+    }
+
+    /**
+     * Footer 是否展开
+     *
+     * @return Footer 是否展开
+     */
+    public boolean isFooterExpanded() {
+        return mIsFooterExpanded;
+    }
+
+    /**
+     * 设置拖拽类型
+     *
+     * @param dragType 拖拽类型
+     */
+    public void setDragType(@DragType int dragType) {
+        if (dragType == mDragType) {
+            return;
+        }
+        mDragType = dragType;
+        //只影响绘制顺序，不需要重新布局
+        invalidate();
+    }
+
+    /**
+     * 设置拖拽的阻尼系数 越接近0越吃力
+     *
+     * @param dragRate 阻尼系数
+     */
+    public void setDragRate(@FloatRange(from = 0f, to = 1f) float dragRate) {
+        mDragRate = dragRate;
+    }
+
+    /**
+     * Header 拖动时打开/关闭的临界值
+     *
+     * @param headerDragThreshold 临界值
+     */
+    public void setHeaderDragThreshold(int headerDragThreshold) {
+        if (headerDragThreshold > 0) {
+            mHeaderDragThreshold = headerDragThreshold;
+        }
+    }
+
+    /**
+     * 设置 Header 的 drag threshold rate
+     *
+     * @param headerDragThresholdRate Header 拖拽比率
+     */
+    public void setHeaderDragThresholdRate(@FloatRange(from = 0f, to = 1f) float headerDragThresholdRate) {
+        mHeaderDragThresholdRate = getDragThresholdRateInRange(headerDragThresholdRate);
+        if (mHeaderDragThresholdRate != 0) {
+            mHeaderDragThreshold = (int) (mAxis.select(mHeaderWidth, mHeaderHeight) * mHeaderDragThresholdRate);
+        }
+    }
+
+    /**
+     * Footer 拖动时打开/关闭的临界值
+     *
+     * @param footerDragThreshold 临界值
+     */
+    public void setFooterDragThreshold(int footerDragThreshold) {
+        if (footerDragThreshold > 0) {
+            mFooterDragThreshold = footerDragThreshold;
+        }
+    }
+
+    /**
+     * 设置 Footer 的 drag threshold rate
+     *
+     * @param footerDragThresholdRate footer 拖拽比率
+     */
+    public void setFooterDragThresholdRate(@FloatRange(from = 0f, to = 1f) float footerDragThresholdRate) {
+        mFooterDragThresholdRate = getDragThresholdRateInRange(footerDragThresholdRate);
+        if (mFooterDragThresholdRate != 0) {
+            mFooterDragThreshold = (int) (mAxis.select(mFooterWidth, mFooterHeight) * mFooterDragThresholdRate);
+        }
+    }
+
+    /**
+     * Header 最大拖动距离
+     *
+     * @param headerMaxDragDistance 最大拖动距离
+     */
+    public void setHeaderMaxDragDistance(int headerMaxDragDistance) {
         if (headerMaxDragDistance > 0) {
             mHeaderMaxDragDistance = headerMaxDragDistance;
         }
@@ -1553,6 +2788,303 @@ public class PullExpandLayout extends HeaderFooterLayout {
         mIsFooterEnabled = footerEnabled;
     }
 
+    /**
+     * 设置是否根据松手时的速度决定打开或者关闭
+     * 开启后松手速度超过 {@link #setMinFlingVelocity(int)} 时，按照手指滑动的方向打开或者关闭，
+     * 否则按照拖拽的临界值判断，默认关闭
+     *
+     * @param flingReleaseEnabled 是否开启
+     */
+    public void setFlingReleaseEnabled(boolean flingReleaseEnabled) {
+        mIsFlingReleaseEnabled = flingReleaseEnabled;
+    }
+
+    /**
+     * 设置快速滑动松手的最小速度，单位 px/s，默认为系统的最小 fling 速度
+     *
+     * @param minFlingVelocity 最小速度
+     */
+    public void setMinFlingVelocity(int minFlingVelocity) {
+        if (minFlingVelocity > 0) {
+            mMinFlingVelocity = minFlingVelocity;
+        }
+    }
+
+    /**
+     * 获取快速滑动松手的最小速度
+     *
+     * @return 最小速度
+     */
+    public int getMinFlingVelocity() {
+        return mMinFlingVelocity;
+    }
+
+    /**
+     * 设置松手后的动画引擎类型
+     * {@link #SETTLE_MODE_SCROLLER} 固定时长的 Scroller，默认
+     * {@link #SETTLE_MODE_SPRING} 阻尼弹簧，时长随距离变化，可以在动画过程中修改目标
+     *
+     * @param settleMode 动画引擎类型
+     */
+    public void setSettleMode(@SettleMode int settleMode) {
+        if (settleMode == mSettleMode) {
+            return;
+        }
+        mSettleMode = settleMode;
+        stopSettle();
+        mSettleEngine = createSettleEngine(settleMode);
+    }
+
+    /**
+     * 替换动画的帧调度器和时间源，用于在测试中逐帧驱动动画
+     * 动画和回调合并共用同一个帧调度器，需要支持同时调度多个回调
+     *
+     * @param frameScheduler 帧调度器
+     * @param timeSource     时间源
+     */
+    @VisibleForTesting
+    void setAnimationClock(@NonNull FrameScheduler frameScheduler, @NonNull AnimationTimeSource timeSource) {
+        stopSettle();
+        mAnimationTimeSource = timeSource;
+        mSettleEngine = createSettleEngine(mSettleMode);
+        mSettleFrameDriver.setFrameScheduler(frameScheduler);
+        mDragFrameDriver.setFrameScheduler(frameScheduler);
+        mMovingDispatchDriver.setFrameScheduler(frameScheduler);
+        mInputLatencyDriver.setFrameScheduler(frameScheduler);
+    }
+
+    /**
+     * 恢复默认的帧调度器和时间源
+     */
+    @VisibleForTesting
+    void resetAnimationClock() {
+        stopSettle();
+        mAnimationTimeSource = AnimationTimeSource.DEFAULT;
+        mSettleEngine = createSettleEngine(mSettleMode);
+        //ChoreographerFrameScheduler 只支持同时调度一个回调，每个帧驱动使用单独的实例
+        mSettleFrameDriver.setFrameScheduler(new ChoreographerFrameScheduler(this));
+        mDragFrameDriver.setFrameScheduler(new ChoreographerFrameScheduler(this));
+        mMovingDispatchDriver.setFrameScheduler(new ChoreographerFrameScheduler(this));
+        mInputLatencyDriver.setFrameScheduler(new ChoreographerFrameScheduler(this));
+    }
+
+    /**
+     * 开始记录 dispatchTouchEvent 收到的事件和布局尺寸的变化，用于复现问题
+     * 通过 {@link #stopGestureRecording()} 获取记录，放到单元测试的手势记录中回放
+     * 记录中的事件会保存在内存中，不要长时间开启
+     */
+    public void startGestureRecording() {
+        mGestureRecorder = new GestureRecorder(getOrientation(), getWidth(), getHeight());
+    }
+
+    /**
+     * 停止记录手势
+     *
+     * @return 二进制格式的记录，没有开始记录时为 null
+     */
+    @Nullable
+    public byte[] stopGestureRecording() {
+        if (mGestureRecorder == null) {
+            return null;
+        }
+        byte[] recording = mGestureRecorder.toByteArray();
+        mGestureRecorder = null;
+        return recording;
+    }
+
+    /**
+     * 开启或者关闭性能统计，关闭时丢弃已有的统计数据
+     *
+     * @param metricsEnabled 是否开启
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        if (metricsEnabled == (mMetrics != null)) {
+            return;
+        }
+        mMetrics = metricsEnabled ? new PullExpandMetrics() : null;
+        mPendingInputEventTime = -1;
+        mSettleStartTime = -1;
+        mInputLatencyDriver.stop();
+    }
+
+    /**
+     * 获取性能统计
+     *
+     * @return 性能统计，没有开启时为 null
+     */
+    @Nullable
+    public PullExpandMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * 获取松手后的动画引擎类型
+     *
+     * @return 动画引擎类型
+     */
+    public int getSettleMode() {
+        return mSettleMode;
+    }
+
+    /**
+     * 设置弹簧刚度，越大越快，只在 {@link #SETTLE_MODE_SPRING} 时生效
+     *
+     * @param stiffness 刚度
+     */
+    public void setSpringStiffness(float stiffness) {
+        if (stiffness <= 0) {
+            return;
+        }
+        mSpringStiffness = stiffness;
+        if (mSettleEngine instanceof SpringSettleEngine) {
+            ((SpringSettleEngine) mSettleEngine).setStiffness(stiffness);
+        }
+    }
+
+    /**
+     * 设置弹簧阻尼比，<1 时会越过目标后回弹，>=1 时不会越过目标，只在 {@link #SETTLE_MODE_SPRING} 时生效
+     *
+     * @param dampingRatio 阻尼比
+     */
+    public void setSpringDampingRatio(float dampingRatio) {
+        if (dampingRatio <= 0) {
+            return;
+        }
+        mSpringDampingRatio = dampingRatio;
+        if (mSettleEngine instanceof SpringSettleEngine) {
+            ((SpringSettleEngine) mSettleEngine).setDampingRatio(dampingRatio);
+        }
+    }
+
+    /**
+     * 设置是否合并 MOVE 事件
+     * 开启后每个 MOVE 事件只做阻尼计算，在下一帧统一应用一次偏移、回调和转换，适合触摸采样率高于刷新率的设备
+     *
+     * @param moveCoalescingEnabled 是否合并
+     */
+    public void setMoveCoalescingEnabled(boolean moveCoalescingEnabled) {
+        if (!moveCoalescingEnabled) {
+            flushPendingDrag();
+        }
+        mIsMoveCoalescingEnabled = moveCoalescingEnabled;
+    }
+
+    /**
+     * 是否合并 MOVE 事件
+     *
+     * @return 是否合并
+     */
+    public boolean isMoveCoalescingEnabled() {
+        return mIsMoveCoalescingEnabled;
+    }
+
+    /**
+     * 设置 OnPullExpandChangedListener 的回调分发方式
+     * {@link #DISPATCH_MODE_EVERY_MOVE} 每次移动都回调 onXxMoving 和 onXxStateChanged
+     * {@link #DISPATCH_MODE_TRANSITION} onXxStateChanged 只在状态变化时回调，onXxMoving 每帧最多回调一次最新的偏移
+     *
+     * @param dispatchMode 回调分发方式
+     */
+    public void setDispatchMode(@DispatchMode int dispatchMode) {
+        if (dispatchMode == mDispatchMode) {
+            return;
+        }
+        flushPendingMoving();
+        mDispatchMode = dispatchMode;
+        //切换后第一次回调当前状态
+        mChangedHeaderState = -1;
+        mChangedFooterState = -1;
+    }
+
+    /**
+     * 获取 OnPullExpandChangedListener 的回调分发方式
+     *
+     * @return 回调分发方式
+     */
+    public int getDispatchMode() {
+        return mDispatchMode;
+    }
+
+    /**
+     * 设置偏移方式
+     * {@link #OFFSET_MODE_SCROLL} 通过 scrollTo 滚动整个 PullExpandLayout
+     * {@link #OFFSET_MODE_TRANSLATION} 通过 translationX/translationY 平移 Header、Content 和 Footer，
+     * 拖动时只更新 RenderNode 的属性，不需要重新记录绘制内容
+     *
+     * @param offsetMode 偏移方式
+     */
+    public void setOffsetMode(@OffsetMode int offsetMode) {
+        if (offsetMode == mOffsetMode) {
+            return;
+        }
+        int offsetX = getOffsetX();
+        int offsetY = getOffsetY();
+        //先在原来的方式下回到 0，再用新的方式偏移，保证当前位置不变
+        offsetTo(0, 0);
+        mOffsetMode = offsetMode;
+        offsetTo(offsetX, offsetY);
+    }
+
+    /**
+     * 获取偏移方式
+     *
+     * @return 偏移方式
+     */
+    public int getOffsetMode() {
+        return mOffsetMode;
+    }
+
+    /**
+     * 获取偏移对应的子 View 的 translationX，{@link #OFFSET_MODE_SCROLL} 时为 0
+     * {@link OffsetAwarePullExpandTransformer} 设置 translationX 时需要加上此值
+     *
+     * @return translationX
+     */
+    public int getOffsetTranslationX() {
+        return mOffsetMode == OFFSET_MODE_TRANSLATION ? -mOffsetX : 0;
+    }
+
+    /**
+     * 获取偏移对应的子 View 的 translationY，{@link #OFFSET_MODE_SCROLL} 时为 0
+     * {@link OffsetAwarePullExpandTransformer} 设置 translationY 时需要加上此值
+     *
+     * @return translationY
+     */
+    public int getOffsetTranslationY() {
+        return mOffsetMode == OFFSET_MODE_TRANSLATION ? -mOffsetY : 0;
+    }
+
+    /**
+     * 设置拖动和松手动画期间是否把 Header、Footer 和 Content 提升为硬件层，状态确定后恢复
+     * 适合转换器每帧修改 alpha 等属性并且 Header/Footer 内容复杂的情况，自身正在刷新的 View 不会提升
+     *
+     * @param hardwareLayerEnabled 是否提升为硬件层
+     */
+    public void setHardwareLayerEnabled(boolean hardwareLayerEnabled) {
+        mIsHardwareLayerEnabled = hardwareLayerEnabled;
+        if (!hardwareLayerEnabled) {
+            demoteMovingChildren();
+        }
+    }
+
+    /**
+     * 拖动和松手动画期间是否提升为硬件层
+     *
+     * @return 是否提升
+     */
+    public boolean isHardwareLayerEnabled() {
+        return mIsHardwareLayerEnabled;
+    }
+
+    /**
+     * 获取累计提升为硬件层的次数，用于确认提升是否生效
+     *
+     * @return 提升次数
+     */
+    public int getHardwareLayerPromotionCount() {
+        return mHardwareLayerHelper.getPromotionCount();
+    }
+
     /**
      * 设置 PullExpandLayout 滑动时的转换器
      *
@@ -1562,17 +3094,45 @@ public class PullExpandLayout extends HeaderFooterLayout {
         mPullExpandTransformer = pullExpandTransformer;
     }
 
+    /**
+     * 设置 contentView 的边界检查器，用来判断 contentView 是否滚动到边界
+     * 传 null 时恢复为默认的 {@link DefaultScrollBoundaryChecker}
+     *
+     * @param scrollBoundaryChecker 边界检查器
+     */
+    public void setScrollBoundaryChecker(@Nullable ScrollBoundaryChecker scrollBoundaryChecker) {
+        mScrollBoundaryChecker = scrollBoundaryChecker != null ? scrollBoundaryChecker
+                : new DefaultScrollBoundaryChecker();
+    }
+
+    /**
+     * 获取 contentView 的边界检查器
+     *
+     * @return 边界检查器
+     */
+    @NonNull
+    public ScrollBoundaryChecker getScrollBoundaryChecker() {
+        return mScrollBoundaryChecker;
+    }
+
     /**
      * 添加状态变化监听器
      *
      * @param listener OnPullExpandChangedListener
      */
     public void addOnPullExpandChangedListener(OnPullExpandChangedListener listener) {
-        if (mOnPullExpandChangedListeners == null) {
-            mOnPullExpandChangedListeners = new ArrayList<>();
-        }
-        if (listener != null && !mOnPullExpandChangedListeners.contains(listener)) {
-            mOnPullExpandChangedListeners.add(listener);
+        addOnPullExpandChangedListener(listener, false);
+    }
+
+    /**
+     * 添加状态变化监听器
+     *
+     * @param listener OnPullExpandChangedListener
+     * @param isWeak   是否弱引用持有，监听器被回收后自动移除，避免生命周期较短的监听器泄漏
+     */
+    public void addOnPullExpandChangedListener(OnPullExpandChangedListener listener, boolean isWeak) {
+        if (listener != null) {
+            mOnPullExpandChangedListeners.add(listener, isWeak);
         }
     }
 
@@ -1582,7 +3142,7 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @param listener OnPullExpandChangedListener
      */
     public void removePullExpandChangedListener(OnPullExpandChangedListener listener) {
-        if (mOnPullExpandChangedListeners != null && listener != null) {
+        if (listener != null) {
             mOnPullExpandChangedListeners.remove(listener);
         }
     }
@@ -1591,9 +3151,7 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * 移除所有状态变化监听器
      */
     public void removeAllPullExpandChangedListeners() {
-        if (mOnPullExpandChangedListeners != null) {
-            mOnPullExpandChangedListeners.clear();
-        }
+        mOnPullExpandChangedListeners.clear();
     }
 
     /**
@@ -1602,11 +3160,18 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @param listener OnPullExpandStateListener
      */
     public void addOnPullExpandStateListener(OnPullExpandStateListener listener) {
-        if (mOnPullExpandStateListeners == null) {
-            mOnPullExpandStateListeners = new ArrayList<>();
-        }
-        if (listener != null && !mOnPullExpandStateListeners.contains(listener)) {
-            mOnPullExpandStateListeners.add(listener);
+        addOnPullExpandStateListener(listener, false);
+    }
+
+    /**
+     * 添加状态监听器
+     *
+     * @param listener OnPullExpandStateListener
+     * @param isWeak   是否弱引用持有，监听器被回收后自动移除，避免生命周期较短的监听器泄漏
+     */
+    public void addOnPullExpandStateListener(OnPullExpandStateListener listener, boolean isWeak) {
+        if (listener != null) {
+            mOnPullExpandStateListeners.add(listener, isWeak);
         }
     }
 
@@ -1616,7 +3181,7 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * @param listener OnPullExpandStateListener
      */
     public void removePullExpandStateListener(OnPullExpandStateListener listener) {
-        if (mOnPullExpandStateListeners != null && listener != null) {
+        if (listener != null) {
             mOnPullExpandStateListeners.remove(listener);
         }
     }
@@ -1625,11 +3190,69 @@ public class PullExpandLayout extends HeaderFooterLayout {
      * 移除所有状态监听器
      */
     public void removeAllPullExpandStateListeners() {
-        if (mOnPullExpandStateListeners != null) {
-            mOnPullExpandStateListeners.clear();
+        mOnPullExpandStateListeners.clear();
+    }
+
+    /**
+     * 添加 Header Footer 露出监听器
+     *
+     * @param listener OnPullExpandVisibilityListener
+     */
+    public void addOnPullExpandVisibilityListener(OnPullExpandVisibilityListener listener) {
+        addOnPullExpandVisibilityListener(listener, false);
+    }
+
+    /**
+     * 添加 Header Footer 露出监听器
+     *
+     * @param listener OnPullExpandVisibilityListener
+     * @param isWeak   是否弱引用持有，监听器被回收后自动移除，避免生命周期较短的监听器泄漏
+     */
+    public void addOnPullExpandVisibilityListener(OnPullExpandVisibilityListener listener, boolean isWeak) {
+        if (listener != null) {
+            mOnPullExpandVisibilityListeners.add(listener, isWeak);
+        }
+    }
+
+    /**
+     * 移除 Header Footer 露出监听器
+     *
+     * @param listener OnPullExpandVisibilityListener
+     */
+    public void removeOnPullExpandVisibilityListener(OnPullExpandVisibilityListener listener) {
+        if (listener != null) {
+            mOnPullExpandVisibilityListeners.remove(listener);
         }
     }
 
+    /**
+     * Header 是否露出可见区域
+     *
+     * @return 是否露出
+     */
+    public boolean isHeaderVisible() {
+        return mIsHeaderVisible;
+    }
+
+    /**
+     * Footer 是否露出可见区域
+     *
+     * @return 是否露出
+     */
+    public boolean isFooterVisible() {
+        return mIsFooterVisible;
+    }
+
+    /**
+     * 设置完全在可见区域之外并且没有被拉出的 Header Footer 是否跳过转换器回调
+     * 转换器需要在收起状态下持续修改 Header Footer 时不要开启
+     *
+     * @param skipOffscreenTransform 是否跳过
+     */
+    public void setSkipOffscreenTransform(boolean skipOffscreenTransform) {
+        mIsSkipOffscreenTransform = skipOffscreenTransform;
+    }
+
     /**
      * 获取当前 Header 状态
      *
@@ -1648,13 +3271,80 @@ public class PullExpandLayout extends HeaderFooterLayout {
         return mCurrentFooterState;
     }
 
+    /**
+     * 设置是否开启嵌套滑动模式
+     * 开启后支持嵌套滑动的 contentView（比如 RecyclerView）通过嵌套滑动直接驱动 Header Footer 偏移，
+     * 不支持嵌套滑动的 contentView 仍然通过事件转发处理
+     *
+     * @param nestedScrollModeEnabled 是否开启
+     */
+    public void setNestedScrollModeEnabled(boolean nestedScrollModeEnabled) {
+        mIsNestedScrollModeEnabled = nestedScrollModeEnabled;
+    }
+
+    /**
+     * 是否开启了嵌套滑动模式
+     *
+     * @return 是否开启
+     */
+    public boolean isNestedScrollModeEnabled() {
+        return mIsNestedScrollModeEnabled;
+    }
+
+    /**
+     * 设置是否处理 ACTION_MOVE 中批量的历史采样点
+     * 开启后每个采样点都参与阻尼计算，关闭时只处理最新的采样点
+     * 速度追踪器 VelocityTracker 始终会读取全部的历史采样点
+     *
+     * @param processHistoricalEvents 是否处理历史采样点
+     */
+    public void setProcessHistoricalEvents(boolean processHistoricalEvents) {
+        mIsProcessHistoricalEvents = processHistoricalEvents;
+    }
+
+    /**
+     * 是否处理 ACTION_MOVE 中批量的历史采样点
+     *
+     * @return 是否处理历史采样点
+     */
+    public boolean isProcessHistoricalEvents() {
+        return mIsProcessHistoricalEvents;
+    }
+
+    /**
+     * 开启或者关闭 systrace/Perfetto 标记，所有 PullExpandLayout 共用
+     * 开启后 dispatchTouchEvent、拖动、转换、回调以及状态计算会显示为单独的 section，
+     * 同时在 API 29 及以上记录偏移和 Header Footer 状态的计数器
+     * 需要在主线程调用，不要在回调中切换
+     *
+     * @param traceEnabled 是否开启
+     */
+    public static void setTraceEnabled(boolean traceEnabled) {
+        PullExpandTrace.setEnabled(traceEnabled);
+    }
+
     /**
      * 设置debug模式
+     * 开启后在固定大小的缓冲区中记录最近的调试事件，通过 {@link #dumpDebugTrace()} 输出
      *
-     * @param debug 是否开启debug日志打印
+     * @param debug 是否开启
      */
     public void setDebug(boolean debug) {
-        mIsDebug = debug;
+        if (debug == (mDebugEventRecorder != null)) {
+            return;
+        }
+        mDebugEventRecorder = debug ? new DebugEventRecorder(DebugEventRecorder.DEFAULT_CAPACITY) : null;
+    }
+
+    /**
+     * 输出最近记录的调试事件，每条包括事件、时间、偏移、位移或速度以及 Header Footer 状态
+     * 记录时不会产生新的对象，可以在线上版本开启 debug 模式，出现问题时上报此文本
+     *
+     * @return 调试事件文本，没有开启 debug 模式时为空字符串
+     */
+    @NonNull
+    public String dumpDebugTrace() {
+        return mDebugEventRecorder != null ? mDebugEventRecorder.dump() : "";
     }
 
     /**
@@ -1677,6 +3367,7 @@ public class PullExpandLayout extends HeaderFooterLayout {
             return;
         }
         if (isExpand) {
+            preload();
             openHeader(isAnim);
         } else {
             closeHeader(isAnim);
@@ -1703,14 +3394,83 @@ public class PullExpandLayout extends HeaderFooterLayout {
             return;
         }
         if (isExpand) {
+            preload();
             openFooter(isAnim);
         } else {
             closeFooter(isAnim);
         }
     }
 
+    /**
+     * 设置指定方向上的 Header 打开/关闭
+     * 四边模式下打开另一方向的 Header 时，先立即收起当前方向
+     *
+     * @param orientation 方向
+     * @param isExpand    是否展开
+     * @param isAnim      是否伴随动画
+     */
+    public void setHeaderExpanded(@Orientation int orientation, boolean isExpand, boolean isAnim) {
+        if (isExpand ? switchOrientationForExpand(orientation) : orientation == mOrientation) {
+            setHeaderExpanded(isExpand, isAnim);
+        }
+    }
+
+    /**
+     * 设置指定方向上的 Footer 打开/关闭
+     * 四边模式下打开另一方向的 Footer 时，先立即收起当前方向
+     *
+     * @param orientation 方向
+     * @param isExpand    是否展开
+     * @param isAnim      是否伴随动画
+     */
+    public void setFooterExpanded(@Orientation int orientation, boolean isExpand, boolean isAnim) {
+        if (isExpand ? switchOrientationForExpand(orientation) : orientation == mOrientation) {
+            setFooterExpanded(isExpand, isAnim);
+        }
+    }
+
+    /**
+     * 展开指定方向前切换方向，当前方向有偏移时立即收起
+     *
+     * @param orientation 目标方向
+     * @return 当前方向是否为目标方向
+     */
+    private boolean switchOrientationForExpand(@Orientation int orientation) {
+        if (orientation == mOrientation) {
+            return true;
+        }
+        if (!isFourEdgeMode() || mIsFingerTouched) {
+            return false;
+        }
+        flushPendingDrag();
+        stopSettle();
+        if (getOffset() != 0) {
+            setOffset(0);
+            doOnScrollAndDrag();
+            updateLastScroll();
+            mIsStateCheckPending = false;
+            checkFinalHeaderFooterState();
+        }
+        return switchOrientationIfIdle(orientation);
+    }
+
     @IntDef({DRAG_TYPE_TRANSLATE, DRAG_TYPE_FIXED_BEHIND, DRAG_TYPE_FIXED_FOREGROUND})
     @Retention(RetentionPolicy.SOURCE)
     private @interface DragType {
     }
+
+    @IntDef({SETTLE_MODE_SCROLLER, SETTLE_MODE_SPRING})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface SettleMode {
+    }
+
+    @IntDef({DISPATCH_MODE_EVERY_MOVE, DISPATCH_MODE_TRANSITION})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface DispatchMode {
+    }
+
+    @IntDef({OFFSET_MODE_SCROLL, OFFSET_MODE_TRANSLATION})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface OffsetMode {
+    }
 }
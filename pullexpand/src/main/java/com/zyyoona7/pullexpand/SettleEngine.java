@@ -0,0 +1,56 @@
+package com.zyyoona7.pullexpand;
+
+/**
+ * 松手后滚动到最终态的动画引擎，只处理布局方向上的一维偏移
+ */
+interface SettleEngine {
+
+    /**
+     * 开始滚动
+     *
+     * @param startOffset 起始偏移
+     * @param endOffset   目标偏移
+     * @param velocity    起始速度，px/s，>0 偏移增大
+     * @param isAnimate   是否执行动画，false 时下一帧直接到达目标偏移
+     */
+    void start(int startOffset, int endOffset, float velocity, boolean isAnimate);
+
+    /**
+     * 动画过程中修改目标偏移，保持当前的位置和速度继续运动
+     *
+     * @param endOffset 新的目标偏移
+     */
+    void retarget(int endOffset);
+
+    /**
+     * 计算当前时刻的偏移
+     *
+     * @return 是否还在滚动（包括到达目标偏移的最后一次）
+     */
+    boolean computeOffset();
+
+    /**
+     * @return 当前偏移
+     */
+    int getCurrOffset();
+
+    /**
+     * @return 目标偏移
+     */
+    int getFinalOffset();
+
+    /**
+     * @return 当前速度，px/s
+     */
+    float getCurrVelocity();
+
+    /**
+     * @return 是否已经停止
+     */
+    boolean isFinished();
+
+    /**
+     * 立即停止在当前位置
+     */
+    void forceFinished();
+}
@@ -0,0 +1,52 @@
+package com.zyyoona7.pullexpand.checker;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.widget.AbsListView;
+
+/**
+ * ListView、GridView 等 AbsListView 的边界检查器
+ * 直接通过第一个/最后一个可见 item 的位置判断，不需要计算滚动偏移
+ */
+public class AbsListViewScrollBoundaryChecker implements ScrollBoundaryChecker {
+
+    @Override
+    public boolean isScrollToTop(@NonNull View contentView) {
+        if (!(contentView instanceof AbsListView)) {
+            return !contentView.canScrollVertically(-1);
+        }
+        AbsListView listView = (AbsListView) contentView;
+        if (listView.getChildCount() == 0) {
+            return true;
+        }
+        return listView.getFirstVisiblePosition() == 0
+                && listView.getChildAt(0).getTop() >= listView.getPaddingTop();
+    }
+
+    @Override
+    public boolean isScrollToBottom(@NonNull View contentView) {
+        if (!(contentView instanceof AbsListView)) {
+            return !contentView.canScrollVertically(1);
+        }
+        AbsListView listView = (AbsListView) contentView;
+        int childCount = listView.getChildCount();
+        if (childCount == 0) {
+            return true;
+        }
+        return listView.getLastVisiblePosition() == listView.getCount() - 1
+                && listView.getChildAt(childCount - 1).getBottom()
+                <= listView.getHeight() - listView.getPaddingBottom();
+    }
+
+    @Override
+    public boolean isScrollToLeft(@NonNull View contentView) {
+        //AbsListView 不能水平滚动
+        return contentView instanceof AbsListView || !contentView.canScrollHorizontally(-1);
+    }
+
+    @Override
+    public boolean isScrollToRight(@NonNull View contentView) {
+        //AbsListView 不能水平滚动
+        return contentView instanceof AbsListView || !contentView.canScrollHorizontally(1);
+    }
+}
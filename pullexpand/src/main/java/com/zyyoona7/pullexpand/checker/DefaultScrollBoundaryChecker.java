@@ -0,0 +1,30 @@
+package com.zyyoona7.pullexpand.checker;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+
+/**
+ * 默认的边界检查器，通过 canScrollVertically/canScrollHorizontally 判断，适用于任意 View
+ */
+public class DefaultScrollBoundaryChecker implements ScrollBoundaryChecker {
+
+    @Override
+    public boolean isScrollToTop(@NonNull View contentView) {
+        return !contentView.canScrollVertically(-1);
+    }
+
+    @Override
+    public boolean isScrollToBottom(@NonNull View contentView) {
+        return !contentView.canScrollVertically(1);
+    }
+
+    @Override
+    public boolean isScrollToLeft(@NonNull View contentView) {
+        return !contentView.canScrollHorizontally(-1);
+    }
+
+    @Override
+    public boolean isScrollToRight(@NonNull View contentView) {
+        return !contentView.canScrollHorizontally(1);
+    }
+}
@@ -0,0 +1,37 @@
+package com.zyyoona7.pullexpand.checker;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.webkit.WebView;
+
+/**
+ * WebView 的边界检查器，通过 scrollY 和网页内容高度判断
+ */
+public class WebViewScrollBoundaryChecker implements ScrollBoundaryChecker {
+
+    @Override
+    public boolean isScrollToTop(@NonNull View contentView) {
+        return contentView.getScrollY() <= 0;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public boolean isScrollToBottom(@NonNull View contentView) {
+        if (!(contentView instanceof WebView)) {
+            return !contentView.canScrollVertically(1);
+        }
+        WebView webView = (WebView) contentView;
+        int contentHeight = (int) Math.floor(webView.getContentHeight() * webView.getScale());
+        return webView.getScrollY() + webView.getHeight() >= contentHeight;
+    }
+
+    @Override
+    public boolean isScrollToLeft(@NonNull View contentView) {
+        return contentView.getScrollX() <= 0;
+    }
+
+    @Override
+    public boolean isScrollToRight(@NonNull View contentView) {
+        return !contentView.canScrollHorizontally(1);
+    }
+}
@@ -5,16 +5,20 @@ import android.view.View;
 
 import com.zyyoona7.pullexpand.PullExpandLayout;
 
-public class DefaultPullExpandTransformer implements PullExpandTransformer {
+/**
+ * 默认的变换器，设置的平移量包含 OFFSET_MODE_TRANSLATION 下偏移对应的平移量，
+ * 继承时设置平移量也需要加上 {@link PullExpandLayout#getOffsetTranslationX()} 或者 {@link PullExpandLayout#getOffsetTranslationY()}
+ */
+public class DefaultPullExpandTransformer implements OffsetAwarePullExpandTransformer {
 
     @Override
     public void transformHeader(PullExpandLayout layout, int orientation, int dragType, @NonNull View headerView,
                                 int heightOrWidth, int scrollYOrX) {
         if (dragType == PullExpandLayout.DRAG_TYPE_FIXED_BEHIND) {
             if (isVertical(orientation)) {
-                headerView.setTranslationY(heightOrWidth + scrollYOrX);
+                headerView.setTranslationY(heightOrWidth + scrollYOrX + layout.getOffsetTranslationY());
             } else {
-                headerView.setTranslationX(heightOrWidth + scrollYOrX);
+                headerView.setTranslationX(heightOrWidth + scrollYOrX + layout.getOffsetTranslationX());
             }
         }
     }
@@ -24,9 +28,9 @@ public class DefaultPullExpandTransformer implements PullExpandTransformer {
                                 int heightOrWidth, int scrollYOrX) {
         if (dragType == PullExpandLayout.DRAG_TYPE_FIXED_BEHIND) {
             if (isVertical(orientation)) {
-                footerView.setTranslationY(-heightOrWidth + scrollYOrX);
+                footerView.setTranslationY(-heightOrWidth + scrollYOrX + layout.getOffsetTranslationY());
             } else {
-                footerView.setTranslationX(-heightOrWidth + scrollYOrX);
+                footerView.setTranslationX(-heightOrWidth + scrollYOrX + layout.getOffsetTranslationX());
             }
         }
     }
@@ -36,9 +40,9 @@ public class DefaultPullExpandTransformer implements PullExpandTransformer {
                                  int heightOrWidth, int scrollYOrX) {
         if (dragType == PullExpandLayout.DRAG_TYPE_FIXED_FOREGROUND) {
             if (isVertical(orientation)) {
-                contentView.setTranslationY(scrollYOrX);
+                contentView.setTranslationY(scrollYOrX + layout.getOffsetTranslationY());
             } else {
-                contentView.setTranslationX(scrollYOrX);
+                contentView.setTranslationX(scrollYOrX + layout.getOffsetTranslationX());
             }
         }
     }
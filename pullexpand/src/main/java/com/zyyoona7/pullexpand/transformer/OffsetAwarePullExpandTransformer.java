@@ -0,0 +1,12 @@
+package com.zyyoona7.pullexpand.transformer;
+
+import com.zyyoona7.pullexpand.PullExpandLayout;
+
+/**
+ * 在 {@link PullExpandLayout#OFFSET_MODE_TRANSLATION} 下直接设置最终平移量的变换器
+ * 设置平移量时加上 {@link PullExpandLayout#getOffsetTranslationX()} 或者 {@link PullExpandLayout#getOffsetTranslationY()}，
+ * PullExpandLayout 不需要在调用前后去掉再加回偏移对应的平移量，每个子 View 每帧少两次平移
+ * OFFSET_MODE_SCROLL 下两个值都为 0，与 {@link PullExpandTransformer} 相同
+ */
+public interface OffsetAwarePullExpandTransformer extends PullExpandTransformer {
+}
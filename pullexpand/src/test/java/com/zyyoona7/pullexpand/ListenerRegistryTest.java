@@ -0,0 +1,110 @@
+package com.zyyoona7.pullexpand;
+
+import com.zyyoona7.pullexpand.listener.SimpleOnPullExpandStateListener;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 写时复制的监听器集合，以及分发过程中添加、移除监听器
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ListenerRegistryTest {
+
+    @Test
+    public void addAndRemoveReplaceEntries() {
+        ListenerRegistry<String> registry = new ListenerRegistry<>();
+        assertTrue(registry.isEmpty());
+        registry.add("a", false);
+        registry.add("b", false);
+        Object[] entries = registry.getEntries();
+
+        registry.add("c", false);
+        registry.remove("a");
+        //之前取得的数组不会被修改
+        assertNotSame(entries, registry.getEntries());
+        assertEquals(2, entries.length);
+        assertEquals("a", registry.get(entries, 0));
+        assertEquals("b", registry.get(entries, 1));
+        assertEquals(Arrays.asList("b", "c"), toList(registry));
+    }
+
+    @Test
+    public void duplicateAndMissingListenersKeepEntries() {
+        ListenerRegistry<String> registry = new ListenerRegistry<>();
+        registry.add("a", false);
+        Object[] entries = registry.getEntries();
+        //重复添加、移除不存在的监听器都不会替换数组
+        registry.add("a", true);
+        registry.remove("b");
+        assertSame(entries, registry.getEntries());
+    }
+
+    @Test
+    public void weakListenerIsReturned() {
+        ListenerRegistry<String> registry = new ListenerRegistry<>();
+        String listener = new String("a");
+        registry.add(listener, true);
+        assertSame(listener, registry.get(registry.getEntries(), 0));
+        registry.remove(listener);
+        assertTrue(registry.isEmpty());
+    }
+
+    @Test
+    public void listenersChangedDuringDispatchTakeEffectNextDispatch() {
+        PullExpandLayout layout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL);
+        VirtualAnimationClock clock = new VirtualAnimationClock();
+        layout.setAnimationClock(clock, clock);
+        final List<Integer> first = new ArrayList<>();
+        final List<Integer> second = new ArrayList<>();
+        final List<Integer> added = new ArrayList<>();
+        final SimpleOnPullExpandStateListener addedListener = new SimpleOnPullExpandStateListener() {
+            @Override
+            public void onHeaderStateChanged(PullExpandLayout layout, int state) {
+                added.add(state);
+            }
+        };
+        layout.addOnPullExpandStateListener(new SimpleOnPullExpandStateListener() {
+            @Override
+            public void onHeaderStateChanged(PullExpandLayout layout, int state) {
+                first.add(state);
+                //在回调中移除自己并添加新的监听器，不影响这一次分发
+                layout.removePullExpandStateListener(this);
+                layout.addOnPullExpandStateListener(addedListener);
+            }
+        });
+        layout.addOnPullExpandStateListener(new SimpleOnPullExpandStateListener() {
+            @Override
+            public void onHeaderStateChanged(PullExpandLayout layout, int state) {
+                second.add(state);
+            }
+        });
+        layout.setHeaderExpanded(true, false);
+        clock.runUntilIdle(1000);
+
+        assertEquals(Arrays.asList(PullExpandLayout.STATE_EXPANDING), first);
+        assertEquals(Arrays.asList(PullExpandLayout.STATE_EXPANDING, PullExpandLayout.STATE_EXPANDED), second);
+        assertEquals(Arrays.asList(PullExpandLayout.STATE_EXPANDED), added);
+    }
+
+    private static List<String> toList(ListenerRegistry<String> registry) {
+        Object[] entries = registry.getEntries();
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < entries.length; i++) {
+            list.add(registry.get(entries, i));
+        }
+        return list;
+    }
+}
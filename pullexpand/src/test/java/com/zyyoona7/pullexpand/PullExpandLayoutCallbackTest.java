@@ -0,0 +1,112 @@
+package com.zyyoona7.pullexpand;
+
+import android.view.View;
+
+import com.zyyoona7.pullexpand.listener.OnPullExpandChangedListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 布局过程和状态变化时的回调次数
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PullExpandLayoutCallbackTest {
+
+    private static final int LAYOUT_PASSES = 1000;
+
+    private PullExpandLayout mLayout;
+    private View mContentView;
+    private VirtualAnimationClock mClock;
+    private CountingListener mListener;
+
+    @Before
+    public void setUp() {
+        mContentView = new View(RuntimeEnvironment.application);
+        mLayout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL, mContentView);
+        mClock = new VirtualAnimationClock();
+        mLayout.setAnimationClock(mClock, mClock);
+        mListener = new CountingListener();
+        mLayout.addOnPullExpandChangedListener(mListener);
+        mLayout.setMetricsEnabled(true);
+    }
+
+    @Test
+    public void collapsedLayoutPassesDispatchNothing() {
+        requestContentLayouts();
+        assertEquals(0, mListener.mCount);
+        assertEquals(0, mLayout.getMetrics().getTotalCount(PullExpandMetrics.COUNTER_LISTENER_CALLS));
+    }
+
+    @Test
+    public void expandedLayoutPassesDispatchNothing() {
+        mLayout.setHeaderExpanded(true, false);
+        mClock.runUntilIdle(1000);
+        assertEquals(PullExpandLayout.STATE_EXPANDED, mLayout.getCurrentHeaderState());
+        //展开过程中的回调
+        int expandCount = mListener.mCount;
+        assertTrue(expandCount > 0);
+
+        requestContentLayouts();
+        assertEquals(expandCount, mListener.mCount);
+        assertEquals(-PullExpandTestUtils.EDGE_SIZE, mLayout.getScrollY());
+    }
+
+    @Test
+    public void layoutPassDispatchesOffsetChangedOutsideCallbacks() {
+        //偏移被直接修改，下一次布局分发一次，之后不再分发
+        mLayout.scrollTo(0, -PullExpandTestUtils.EDGE_SIZE / 2);
+        requestContentLayouts();
+        assertEquals(1, mListener.mCount);
+    }
+
+    /**
+     * Content 请求重新布局 {@link #LAYOUT_PASSES} 次，每次都完成测量和布局
+     */
+    private void requestContentLayouts() {
+        for (int i = 0; i < LAYOUT_PASSES; i++) {
+            mContentView.requestLayout();
+            PullExpandTestUtils.measureAndLayout(mLayout, PullExpandTestUtils.WIDTH, PullExpandTestUtils.HEIGHT);
+        }
+    }
+
+    private static final class CountingListener implements OnPullExpandChangedListener {
+
+        private int mCount = 0;
+
+        @Override
+        public void onHeaderMoving(int orientation, float percent, int offset,
+                                   int heightOrWidth, int maxDragDistance) {
+            mCount++;
+        }
+
+        @Override
+        public void onFooterMoving(int orientation, float percent, int offset,
+                                   int heightOrWidth, int maxDragDistance) {
+            mCount++;
+        }
+
+        @Override
+        public void onReleased(PullExpandLayout layout, int currentOffset) {
+            mCount++;
+        }
+
+        @Override
+        public void onHeaderStateChanged(PullExpandLayout layout, int state) {
+            mCount++;
+        }
+
+        @Override
+        public void onFooterStateChanged(PullExpandLayout layout, int state) {
+            mCount++;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.zyyoona7.pullexpand;
+
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ScrollView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 合并 MOVE 事件时，偏移和事件在本控件与 contentView 之间的转交都与逐个处理时一致
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PullExpandLayoutCoalescingTest {
+
+    //拖动的帧数
+    private static final int FRAMES = 12;
+    //每帧的 MOVE 事件数
+    private static final int MOVES_PER_FRAME = 4;
+    //每个 MOVE 事件的移动距离，向上收起 Header
+    private static final float MOVE_STEP = -25f;
+    //contentView 开始时的滚动距离，上下都可以滚动
+    private static final int CONTENT_START_SCROLL = 200;
+
+    @Test
+    public void collapsingAcrossHysteresisMatchesUncoalesced() {
+        Result uncoalesced = collapseExpandedHeader(false);
+        Result coalesced = collapseExpandedHeader(true);
+
+        //同一帧中偏移越过 -20 后，两种模式都在同一个 MOVE 事件把后续事件交给 contentView
+        assertEquals(uncoalesced.mOffsets, coalesced.mOffsets);
+        assertEquals(uncoalesced.mContentScrolls, coalesced.mContentScrolls);
+        assertEquals(uncoalesced.mHandoffs, coalesced.mHandoffs);
+        //Header 收起后 contentView 继续滚动
+        int lastContentScroll = uncoalesced.mContentScrolls.get(FRAMES - 1);
+        assertEquals(0, (int) uncoalesced.mOffsets.get(FRAMES - 1));
+        assertTrue(lastContentScroll > CONTENT_START_SCROLL);
+    }
+
+    /**
+     * 展开 Header 后从 contentView 中间向上拖动，记录每帧之后的偏移和 contentView 的滚动距离
+     *
+     * @param isCoalescing 是否合并 MOVE 事件
+     * @return 每帧的结果
+     */
+    private static Result collapseExpandedHeader(boolean isCoalescing) {
+        ScrollView scrollView = new ScrollView(RuntimeEnvironment.application);
+        scrollView.addView(new View(RuntimeEnvironment.application), new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, PullExpandTestUtils.HEIGHT * 2));
+        PullExpandLayout layout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL, scrollView);
+        scrollView.scrollTo(0, CONTENT_START_SCROLL);
+        VirtualAnimationClock clock = new VirtualAnimationClock();
+        layout.setAnimationClock(clock, clock);
+        layout.setMetricsEnabled(true);
+        layout.setMoveCoalescingEnabled(isCoalescing);
+        layout.setHeaderExpanded(true, false);
+        clock.runUntilIdle(1000);
+        assertEquals(-PullExpandTestUtils.EDGE_SIZE, layout.getScrollY());
+
+        long startTime = clock.currentTimeMillis();
+        long eventTime = startTime;
+        float y = 1000f;
+        dispatch(layout, MotionEvent.ACTION_DOWN, startTime, eventTime, y);
+        //第一次移动超过 touch slop
+        eventTime += 4;
+        y -= 20f;
+        dispatch(layout, MotionEvent.ACTION_MOVE, startTime, eventTime, y);
+        Result result = new Result();
+        for (int frame = 1; frame <= FRAMES; frame++) {
+            for (int i = 0; i < MOVES_PER_FRAME; i++) {
+                eventTime += 4;
+                y += MOVE_STEP;
+                dispatch(layout, MotionEvent.ACTION_MOVE, startTime, eventTime, y);
+            }
+            clock.advanceTo(startTime + frame * VirtualAnimationClock.FRAME_INTERVAL_MS);
+            result.mOffsets.add(layout.getScrollY());
+            result.mContentScrolls.add(scrollView.getScrollY());
+        }
+        result.mHandoffs = layout.getMetrics().getTotalCount(PullExpandMetrics.COUNTER_HANDOFFS);
+        return result;
+    }
+
+    private static void dispatch(PullExpandLayout layout, int action, long downTime, long eventTime, float y) {
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, PullExpandTestUtils.WIDTH / 2f, y, 0);
+        layout.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    private static final class Result {
+
+        private final List<Integer> mOffsets = new ArrayList<>();
+        private final List<Integer> mContentScrolls = new ArrayList<>();
+        private long mHandoffs;
+    }
+}
@@ -0,0 +1,105 @@
+package com.zyyoona7.pullexpand;
+
+import android.content.Context;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * OFFSET_MODE_TRANSLATION 和 OFFSET_MODE_SCROLL 的显示位置一致，并且每次偏移不重复设置平移量
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PullExpandLayoutOffsetModeTest {
+
+    private static final long SETTLE_DURATION = 600;
+
+    @Test
+    public void fixedBehindMatchesScrollMode() {
+        assertSameFrames(PullExpandLayout.DRAG_TYPE_FIXED_BEHIND);
+    }
+
+    @Test
+    public void fixedForegroundMatchesScrollMode() {
+        assertSameFrames(PullExpandLayout.DRAG_TYPE_FIXED_FOREGROUND);
+    }
+
+    @Test
+    public void defaultTransformerSetsTranslationOncePerChild() {
+        Context context = RuntimeEnvironment.application;
+        CountingView header = new CountingView(context);
+        CountingView content = new CountingView(context);
+        CountingView footer = new CountingView(context);
+        PullExpandLayout layout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL,
+                header, content, footer);
+        VirtualAnimationClock clock = new VirtualAnimationClock();
+        layout.setAnimationClock(clock, clock);
+        layout.setDragType(PullExpandLayout.DRAG_TYPE_FIXED_BEHIND);
+        layout.setOffsetMode(PullExpandLayout.OFFSET_MODE_TRANSLATION);
+        layout.setMetricsEnabled(true);
+        header.mCount = 0;
+        content.mCount = 0;
+        footer.mCount = 0;
+
+        layout.setHeaderExpanded(true, true);
+        clock.runUntilIdle(SETTLE_DURATION);
+
+        long offsetUpdates = layout.getMetrics().getTotalCount(PullExpandMetrics.COUNTER_OFFSET_UPDATES);
+        assertTrue(offsetUpdates > 0);
+        //偏移平移一次，转换器设置一次，开始和结束的帧偏移可能不变
+        assertTrue("header=" + header.mCount, header.mCount <= 2 * (offsetUpdates + 2));
+        assertTrue("content=" + content.mCount, content.mCount <= offsetUpdates + 2);
+        assertTrue("footer=" + footer.mCount, footer.mCount <= 2 * (offsetUpdates + 2));
+    }
+
+    private static void assertSameFrames(int dragType) {
+        PullExpandLayout scrollLayout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL);
+        PullExpandLayout translationLayout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL);
+        VirtualAnimationClock scrollClock = new VirtualAnimationClock();
+        VirtualAnimationClock translationClock = new VirtualAnimationClock();
+        scrollLayout.setAnimationClock(scrollClock, scrollClock);
+        translationLayout.setAnimationClock(translationClock, translationClock);
+        scrollLayout.setDragType(dragType);
+        translationLayout.setDragType(dragType);
+        translationLayout.setOffsetMode(PullExpandLayout.OFFSET_MODE_TRANSLATION);
+
+        scrollLayout.setHeaderExpanded(true, true);
+        translationLayout.setHeaderExpanded(true, true);
+        for (long time = 0; time <= SETTLE_DURATION; time += VirtualAnimationClock.FRAME_INTERVAL_MS) {
+            scrollClock.advanceTo(time);
+            translationClock.advanceTo(time);
+            for (int i = 0; i < scrollLayout.getChildCount(); i++) {
+                assertEquals("time=" + time + " child=" + i,
+                        getVisibleTop(scrollLayout, scrollLayout.getChildAt(i)),
+                        getVisibleTop(translationLayout, translationLayout.getChildAt(i)), 0f);
+            }
+        }
+        assertEquals(PullExpandLayout.STATE_EXPANDED, translationLayout.getCurrentHeaderState());
+    }
+
+    private static float getVisibleTop(PullExpandLayout layout, View child) {
+        return child.getTop() + child.getTranslationY() - layout.getScrollY();
+    }
+
+    private static class CountingView extends View {
+
+        private int mCount;
+
+        CountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void setTranslationY(float translationY) {
+            mCount++;
+            super.setTranslationY(translationY);
+        }
+    }
+}
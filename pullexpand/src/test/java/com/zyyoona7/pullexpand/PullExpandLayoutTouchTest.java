@@ -0,0 +1,162 @@
+package com.zyyoona7.pullexpand;
+
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowMotionEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 拖动过程中的事件分发，通过 {@link CountingShadowMotionEvent} 统计 MotionEvent.obtain(MotionEvent) 复制的事件数量
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, shadows = PullExpandLayoutTouchTest.CountingShadowMotionEvent.class)
+public class PullExpandLayoutTouchTest {
+
+    private static final int MOVE_COUNT = 10000;
+    private static final float X = 540f;
+
+    private PullExpandLayout mLayout;
+    private RecordingView mContentView;
+    private VirtualAnimationClock mClock;
+    private long mEventTime;
+
+    @Before
+    public void setUp() {
+        mContentView = new RecordingView(RuntimeEnvironment.application);
+        mLayout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL, mContentView);
+        mClock = new VirtualAnimationClock();
+        mLayout.setAnimationClock(mClock, mClock);
+        CountingShadowMotionEvent.sCopyCount = 0;
+    }
+
+    @Test
+    public void moveStreamDoesNotObtainEvents() {
+        float y = 400f;
+        dispatch(MotionEvent.ACTION_DOWN, y);
+        y += 20f;
+        dispatch(MotionEvent.ACTION_MOVE, y);
+        //接管时复制一次事件，先作为 CANCEL 分发给 Content，再作为 DOWN 分发给自己
+        assertEquals(1, CountingShadowMotionEvent.sCopyCount);
+        for (int i = 0; i < 60; i++) {
+            y += 10f;
+            dispatch(MotionEvent.ACTION_MOVE, y);
+        }
+
+        for (int i = 0; i < MOVE_COUNT; i++) {
+            //下拉 20 次、上推 10 次交替，偏移稳定在 Header 范围内，不会经过 0 触发快速滚动
+            y += i % 30 < 20 ? 5f : -5f;
+            dispatch(MotionEvent.ACTION_MOVE, y);
+        }
+        int offset = mLayout.getScrollY();
+        assertTrue("offset=" + offset, offset < -20 && offset > -PullExpandTestUtils.EDGE_SIZE);
+        assertEquals(1, CountingShadowMotionEvent.sCopyCount);
+
+        dispatch(MotionEvent.ACTION_UP, y);
+        assertEquals(1, CountingShadowMotionEvent.sCopyCount);
+        assertEquals(Arrays.asList(MotionEvent.ACTION_DOWN, MotionEvent.ACTION_CANCEL), mContentView.mActions);
+    }
+
+    @Test
+    public void eachGestureObtainsOnlyHandoffEvents() {
+        for (int gesture = 1; gesture <= 10; gesture++) {
+            float y = 400f;
+            dispatch(MotionEvent.ACTION_DOWN, y);
+            //第一次移动超过 touch slop 才能确定拖动方向
+            y += 20f;
+            dispatch(MotionEvent.ACTION_MOVE, y);
+            for (int i = 0; i < 100; i++) {
+                y += 5f;
+                dispatch(MotionEvent.ACTION_MOVE, y);
+            }
+            dispatch(MotionEvent.ACTION_UP, y);
+            mClock.runUntilIdle(1000);
+            assertEquals(gesture, CountingShadowMotionEvent.sCopyCount);
+            //收起后下一次手势从 0 开始
+            mLayout.setHeaderExpanded(false, false);
+            mClock.runUntilIdle(1000);
+            assertEquals(0, mLayout.getScrollY());
+        }
+    }
+
+    @Test
+    public void inputLatencyIsMeasuredToFrameTime() {
+        //帧回调在 vsync 之后 5ms 才执行，延迟应该按照 vsync 的时间统计
+        mLayout.setAnimationClock(mClock, new AnimationTimeSource() {
+            @Override
+            public long currentTimeMillis() {
+                return mClock.currentTimeMillis() + 5;
+            }
+        });
+        mLayout.setMetricsEnabled(true);
+        mClock.advanceTo(100);
+        dispatch(MotionEvent.ACTION_DOWN, 400f, 100);
+        dispatch(MotionEvent.ACTION_MOVE, 420f, 100);
+        dispatch(MotionEvent.ACTION_MOVE, 430f, 100);
+        mClock.advanceTo(100 + VirtualAnimationClock.FRAME_INTERVAL_MS);
+
+        PullExpandMetrics metrics = mLayout.getMetrics();
+        assertEquals(1, metrics.getHistogramTotalCount(PullExpandMetrics.HISTOGRAM_INPUT_LATENCY));
+        //下一帧在 112ms
+        assertEquals(12, metrics.getHistogramSum(PullExpandMetrics.HISTOGRAM_INPUT_LATENCY));
+    }
+
+    private void dispatch(int action, float y) {
+        mEventTime += 8;
+        dispatch(action, y, mEventTime);
+    }
+
+    private void dispatch(int action, float y, long eventTime) {
+        MotionEvent event = MotionEvent.obtain(0, eventTime, action, X, y, 0);
+        mLayout.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    /**
+     * 记录收到的事件类型，消费 DOWN 成为事件的目标
+     */
+    private static final class RecordingView extends View {
+
+        private final List<Integer> mActions = new ArrayList<>();
+
+        RecordingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public boolean dispatchTouchEvent(MotionEvent event) {
+            mActions.add(event.getActionMasked());
+            return true;
+        }
+    }
+
+    /**
+     * 统计 MotionEvent.obtain(MotionEvent) 复制事件的次数
+     */
+    @Implements(MotionEvent.class)
+    public static class CountingShadowMotionEvent extends ShadowMotionEvent {
+
+        static int sCopyCount = 0;
+
+        @Implementation
+        protected static long nativeCopy(long destNativePtr, long sourceNativePtr, boolean keepHistory) {
+            sCopyCount++;
+            return ShadowMotionEvent.nativeCopy(destNativePtr, sourceNativePtr, keepHistory);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.zyyoona7.pullexpand;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * 测试中创建和布局 PullExpandLayout
+ */
+final class PullExpandTestUtils {
+
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 1920;
+    //Header Footer 在布局方向上的尺寸
+    static final int EDGE_SIZE = 300;
+
+    private PullExpandTestUtils() {
+    }
+
+    /**
+     * 创建带有 Header、Content、Footer 的 PullExpandLayout，并按照 {@link #WIDTH} x {@link #HEIGHT} 完成布局
+     *
+     * @param orientation 布局方向
+     * @return PullExpandLayout
+     */
+    @NonNull
+    static PullExpandLayout createLayout(int orientation) {
+        return createLayout(orientation, new View(RuntimeEnvironment.application));
+    }
+
+    /**
+     * 创建带有 Header、Content、Footer 的 PullExpandLayout，并按照 {@link #WIDTH} x {@link #HEIGHT} 完成布局
+     *
+     * @param orientation 布局方向
+     * @param contentView contentView
+     * @return PullExpandLayout
+     */
+    @NonNull
+    static PullExpandLayout createLayout(int orientation, @NonNull View contentView) {
+        Context context = RuntimeEnvironment.application;
+        return createLayout(orientation, new View(context), contentView, new View(context));
+    }
+
+    /**
+     * 使用指定的 Header、Content、Footer 创建 PullExpandLayout，并按照 {@link #WIDTH} x {@link #HEIGHT} 完成布局
+     *
+     * @param orientation 布局方向
+     * @param headerView  headerView
+     * @param contentView contentView
+     * @param footerView  footerView
+     * @return PullExpandLayout
+     */
+    @NonNull
+    static PullExpandLayout createLayout(int orientation, @NonNull View headerView,
+                                         @NonNull View contentView, @NonNull View footerView) {
+        return initLayout(new PullExpandLayout(RuntimeEnvironment.application), orientation,
+                headerView, contentView, footerView);
+    }
+
+    /**
+     * 给 PullExpandLayout 添加指定的 Header、Content、Footer，并按照 {@link #WIDTH} x {@link #HEIGHT} 完成布局
+     *
+     * @param layout      layout
+     * @param orientation 布局方向
+     * @param headerView  headerView
+     * @param contentView contentView
+     * @param footerView  footerView
+     * @param <T>         PullExpandLayout 的类型
+     * @return layout
+     */
+    @NonNull
+    static <T extends PullExpandLayout> T initLayout(@NonNull T layout, int orientation, @NonNull View headerView,
+                                                      @NonNull View contentView, @NonNull View footerView) {
+        layout.setOrientation(orientation);
+        layout.addView(initEdgeView(headerView, orientation, R.id.pull_expand_layout_header));
+        contentView.setId(R.id.pull_expand_layout_content);
+        layout.addView(contentView, new ViewGroup.MarginLayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+        layout.addView(initEdgeView(footerView, orientation, R.id.pull_expand_layout_footer));
+        layout.onFinishInflate();
+        measureAndLayout(layout, WIDTH, HEIGHT);
+        return layout;
+    }
+
+    /**
+     * 创建 Header 或者 Footer，在指定方向上的尺寸为 {@link #EDGE_SIZE}
+     *
+     * @param context     context
+     * @param orientation 方向
+     * @param id          id
+     * @return View
+     */
+    @NonNull
+    static View createEdgeView(@NonNull Context context, int orientation, int id) {
+        return initEdgeView(new View(context), orientation, id);
+    }
+
+    /**
+     * 设置 Header 或者 Footer 的 id 和 LayoutParams，在指定方向上的尺寸为 {@link #EDGE_SIZE}
+     *
+     * @param view        view
+     * @param orientation 方向
+     * @param id          id
+     * @return view
+     */
+    @NonNull
+    static View initEdgeView(@NonNull View view, int orientation, int id) {
+        view.setId(id);
+        view.setLayoutParams(orientation == HeaderFooterLayout.VERTICAL
+                ? new ViewGroup.MarginLayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, EDGE_SIZE)
+                : new ViewGroup.MarginLayoutParams(EDGE_SIZE, ViewGroup.LayoutParams.MATCH_PARENT));
+        return view;
+    }
+
+    /**
+     * 按照指定尺寸测量和布局
+     *
+     * @param view   view
+     * @param width  宽度
+     * @param height 高度
+     */
+    static void measureAndLayout(@NonNull View view, int width, int height) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, width, height);
+    }
+}
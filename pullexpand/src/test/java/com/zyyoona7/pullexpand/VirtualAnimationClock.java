@@ -0,0 +1,91 @@
+package com.zyyoona7.pullexpand;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 虚拟时钟，同时作为帧调度器和时间源，按照固定的帧间隔手动推进，支持同时调度多个回调
+ * 通过 {@link PullExpandLayout#setAnimationClock(FrameScheduler, AnimationTimeSource)} 使用，
+ * 动画和回调合并的结果与运行的机器和执行速度无关，只在测试中使用
+ */
+final class VirtualAnimationClock implements FrameScheduler, AnimationTimeSource {
+
+    //帧间隔，ms
+    static final long FRAME_INTERVAL_MS = 16;
+
+    private final List<FrameCallback> mPendingFrames = new ArrayList<>();
+    private final List<FrameCallback> mRunningFrames = new ArrayList<>();
+    private long mCurrentTime = 0;
+    private long mNextFrameTime = FRAME_INTERVAL_MS;
+
+    /**
+     * 回到 0 时刻，丢弃所有帧回调
+     */
+    void reset() {
+        mPendingFrames.clear();
+        mCurrentTime = 0;
+        mNextFrameTime = FRAME_INTERVAL_MS;
+    }
+
+    /**
+     * 推进到指定时间，执行之间的每一帧
+     *
+     * @param time 时间 ms
+     */
+    void advanceTo(long time) {
+        while (mNextFrameTime <= time) {
+            doFrame();
+        }
+        mCurrentTime = Math.max(mCurrentTime, time);
+    }
+
+    /**
+     * 推进到没有帧回调为止
+     *
+     * @param maxTime 最多推进的时间 ms
+     */
+    void runUntilIdle(long maxTime) {
+        long endTime = mCurrentTime + maxTime;
+        while (!mPendingFrames.isEmpty() && mNextFrameTime <= endTime) {
+            doFrame();
+        }
+    }
+
+    /**
+     * @return 是否还有等待执行的帧回调
+     */
+    boolean hasPendingFrames() {
+        return !mPendingFrames.isEmpty();
+    }
+
+    private void doFrame() {
+        mCurrentTime = mNextFrameTime;
+        mNextFrameTime += FRAME_INTERVAL_MS;
+        mRunningFrames.addAll(mPendingFrames);
+        mPendingFrames.clear();
+        //这一帧中被移除的回调不再执行
+        while (!mRunningFrames.isEmpty()) {
+            mRunningFrames.remove(0).doFrame(mCurrentTime);
+        }
+    }
+
+    @Override
+    public void postFrameCallback(@NonNull FrameCallback frame) {
+        if (!mPendingFrames.contains(frame)) {
+            mPendingFrames.add(frame);
+        }
+    }
+
+    @Override
+    public void removeFrameCallback(@NonNull FrameCallback frame) {
+        mPendingFrames.remove(frame);
+        mRunningFrames.remove(frame);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return mCurrentTime;
+    }
+}
@@ -0,0 +1,135 @@
+package com.zyyoona7.pullexpandx;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 调试事件记录器，使用固定大小的基本类型数组作为环形缓冲区，满了之后覆盖最早的记录
+ * 记录时不会产生新的对象，也不会拼接字符串，可以在线上版本中一直开启；只有 {@link #dump()} 时才生成文本
+ * 只能在主线程使用
+ */
+final class DebugEventRecorder {
+
+    //事件
+    static final int EVENT_MEASURE = 0;
+    static final int EVENT_LAYOUT = 1;
+    static final int EVENT_SIZE_CHANGED = 2;
+    static final int EVENT_HEADER_LAYOUT_CHANGED = 3;
+    static final int EVENT_FOOTER_LAYOUT_CHANGED = 4;
+    static final int EVENT_TOUCH_DOWN = 5;
+    static final int EVENT_SELF_CONTROL = 6;
+    static final int EVENT_TOUCH_UP = 7;
+    static final int EVENT_SWAP_CROSS_AXIS = 8;
+    static final int EVENT_SELF_MOVE_HEADER_EXPAND = 9;
+    static final int EVENT_SELF_MOVE_HEADER_COLLAPSE = 10;
+    static final int EVENT_SELF_MOVE_FOOTER_EXPAND = 11;
+    static final int EVENT_SELF_MOVE_FOOTER_COLLAPSE = 12;
+    static final int EVENT_DIRECTION_VERTICAL = 13;
+    static final int EVENT_DIRECTION_HORIZONTAL = 14;
+    static final int EVENT_DRAG = 15;
+    static final int EVENT_FAST_SCROLL = 16;
+    static final int EVENT_DAMPED_DRAG = 17;
+    static final int EVENT_SETTLED = 18;
+
+    //和事件的值一一对应
+    private static final String[] EVENT_NAMES = {
+            "MEASURE",
+            "LAYOUT",
+            "SIZE_CHANGED",
+            "HEADER_LAYOUT_CHANGED",
+            "FOOTER_LAYOUT_CHANGED",
+            "TOUCH_DOWN",
+            "SELF_CONTROL",
+            "TOUCH_UP",
+            "SWAP_CROSS_AXIS",
+            "SELF_MOVE_HEADER_EXPAND",
+            "SELF_MOVE_HEADER_COLLAPSE",
+            "SELF_MOVE_FOOTER_EXPAND",
+            "SELF_MOVE_FOOTER_COLLAPSE",
+            "DIRECTION_VERTICAL",
+            "DIRECTION_HORIZONTAL",
+            "DRAG",
+            "FAST_SCROLL",
+            "DAMPED_DRAG",
+            "SETTLED"
+    };
+
+    //和 PullExpandLayout.STATE_XXX 的值一一对应
+    private static final String[] STATE_NAMES = {
+            "EXPANDED", "EXPANDING", "COLLAPSING", "COLLAPSED"
+    };
+
+    //默认记录的事件数量
+    static final int DEFAULT_CAPACITY = 256;
+
+    private final int[] mEvents;
+    private final long[] mTimes;
+    private final int[] mOffsets;
+    private final float[] mDeltas;
+    //高 16 位为 Header 状态，低 16 位为 Footer 状态
+    private final int[] mStates;
+    //下一条记录的位置
+    private int mNext = 0;
+    //已经记录的数量，最大为容量
+    private int mSize = 0;
+
+    DebugEventRecorder(int capacity) {
+        mEvents = new int[capacity];
+        mTimes = new long[capacity];
+        mOffsets = new int[capacity];
+        mDeltas = new float[capacity];
+        mStates = new int[capacity];
+    }
+
+    /**
+     * 记录一个事件
+     *
+     * @param event       事件 EVENT_XXX
+     * @param timeMillis  时间 ms
+     * @param offset      当前偏移
+     * @param delta       事件相关的位移或者速度，没有时为 0
+     * @param headerState Header 状态
+     * @param footerState Footer 状态
+     */
+    void record(int event, long timeMillis, int offset, float delta,
+                int headerState, int footerState) {
+        int index = mNext;
+        mEvents[index] = event;
+        mTimes[index] = timeMillis;
+        mOffsets[index] = offset;
+        mDeltas[index] = delta;
+        mStates[index] = (headerState << 16) | (footerState & 0xFFFF);
+        mNext = (index + 1) % mEvents.length;
+        if (mSize < mEvents.length) {
+            mSize++;
+        }
+    }
+
+    /**
+     * 按时间顺序输出所有记录，每条记录一行，时间为相对于第一条记录的毫秒数
+     *
+     * @return 文本
+     */
+    @NonNull
+    String dump() {
+        StringBuilder builder = new StringBuilder(mSize * 80 + 64);
+        builder.append("PullExpandLayout debug trace, ").append(mSize).append(" events\n");
+        int capacity = mEvents.length;
+        int start = (mNext - mSize + capacity) % capacity;
+        long startTime = mSize > 0 ? mTimes[start] : 0;
+        for (int i = 0; i < mSize; i++) {
+            int index = (start + i) % capacity;
+            builder.append('+').append(mTimes[index] - startTime).append("ms ")
+                    .append(getName(EVENT_NAMES, mEvents[index]))
+                    .append(" offset=").append(mOffsets[index])
+                    .append(" delta=").append(mDeltas[index])
+                    .append(" header=").append(getName(STATE_NAMES, mStates[index] >> 16))
+                    .append(" footer=").append(getName(STATE_NAMES, mStates[index] & 0xFFFF))
+                    .append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static String getName(String[] names, int value) {
+        return value >= 0 && value < names.length ? names[value] : String.valueOf(value);
+    }
+}
@@ -0,0 +1,125 @@
+package com.zyyoona7.pullexpandx;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * 写时复制的监听器集合，分发时按下标遍历当前数组，不创建 Iterator
+ * 回调中添加或移除监听器只会替换数组，不影响正在进行的分发
+ * 支持弱引用注册，生命周期较短的监听器被回收后自动跳过
+ *
+ * @param <T> 监听器类型
+ */
+class ListenerRegistry<T> {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    //元素为监听器或者监听器的 WeakReference，不会被原地修改
+    private Object[] mEntries = EMPTY;
+
+    /**
+     * 添加监听器，已经存在时不重复添加
+     *
+     * @param listener 监听器
+     * @param isWeak   是否使用弱引用
+     */
+    void add(@NonNull T listener, boolean isWeak) {
+        purgeClearedEntries();
+        if (indexOf(listener) >= 0) {
+            return;
+        }
+        Object[] entries = new Object[mEntries.length + 1];
+        System.arraycopy(mEntries, 0, entries, 0, mEntries.length);
+        entries[mEntries.length] = isWeak ? new WeakReference<>(listener) : listener;
+        mEntries = entries;
+    }
+
+    /**
+     * 移除监听器
+     *
+     * @param listener 监听器
+     */
+    void remove(@NonNull T listener) {
+        int index = indexOf(listener);
+        if (index < 0) {
+            return;
+        }
+        Object[] entries = new Object[mEntries.length - 1];
+        System.arraycopy(mEntries, 0, entries, 0, index);
+        System.arraycopy(mEntries, index + 1, entries, index, mEntries.length - index - 1);
+        mEntries = entries;
+        purgeClearedEntries();
+    }
+
+    /**
+     * 移除所有监听器
+     */
+    void clear() {
+        mEntries = EMPTY;
+    }
+
+    boolean isEmpty() {
+        return mEntries.length == 0;
+    }
+
+    /**
+     * 获取当前的监听器数组，分发时使用，配合 {@link #get(Object[], int)} 按下标遍历
+     *
+     * @return 当前的监听器数组，不可修改
+     */
+    @NonNull
+    Object[] getEntries() {
+        return mEntries;
+    }
+
+    /**
+     * 获取监听器数组中指定下标的监听器
+     *
+     * @param entries {@link #getEntries()} 返回的数组
+     * @param index   下标
+     * @return 监听器，弱引用已经被回收时返回 null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    T get(@NonNull Object[] entries, int index) {
+        Object entry = entries[index];
+        if (entry instanceof WeakReference) {
+            return ((WeakReference<T>) entry).get();
+        }
+        return (T) entry;
+    }
+
+    private int indexOf(@NonNull T listener) {
+        for (int i = 0; i < mEntries.length; i++) {
+            if (listener.equals(get(mEntries, i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 移除已经被回收的弱引用
+     */
+    private void purgeClearedEntries() {
+        int clearedCount = 0;
+        for (int i = 0; i < mEntries.length; i++) {
+            if (get(mEntries, i) == null) {
+                clearedCount++;
+            }
+        }
+        if (clearedCount == 0) {
+            return;
+        }
+        Object[] entries = new Object[mEntries.length - clearedCount];
+        int position = 0;
+        for (int i = 0; i < mEntries.length; i++) {
+            if (get(mEntries, i) != null) {
+                entries[position++] = mEntries[i];
+            }
+        }
+        mEntries = entries;
+    }
+}
@@ -0,0 +1,235 @@
+package com.zyyoona7.pullexpandx;
+
+import androidx.annotation.NonNull;
+
+/**
+ * PullExpandLayout 的性能统计，通过 {@link PullExpandLayout#setMetricsEnabled(boolean)} 开启
+ * 记录时只修改预先分配的 long 数组，不会产生新的对象；关闭时 PullExpandLayout 不持有此对象，没有额外开销
+ * 计数器按手势（ACTION_DOWN 到 ACTION_UP/ACTION_CANCEL）统计，同时累计总数
+ * 只能在主线程读取，上报时可以通过 {@link #snapshot(PullExpandMetrics)} 复制到自己持有的对象
+ */
+public final class PullExpandMetrics {
+
+    //计数器
+    //本控件处理的 ACTION_MOVE 事件
+    public static final int COUNTER_MOVE_EVENTS = 0;
+    //事件在本控件和 contentView 之间转交的次数
+    public static final int COUNTER_HANDOFFS = 1;
+    //偏移更新次数（scrollTo 或者平移子 View）
+    public static final int COUNTER_OFFSET_UPDATES = 2;
+    //回调监听器的次数
+    public static final int COUNTER_LISTENER_CALLS = 3;
+    //调用转换器的次数
+    public static final int COUNTER_TRANSFORMER_CALLS = 4;
+    private static final int COUNTER_SIZE = 5;
+
+    //直方图
+    //从 MotionEvent#getEventTime 到处理这次偏移的下一帧的延迟，ms
+    public static final int HISTOGRAM_INPUT_LATENCY = 0;
+    //松手动画从开始到结束的时长，ms
+    public static final int HISTOGRAM_SETTLE_DURATION = 1;
+    private static final int HISTOGRAM_SIZE = 2;
+
+    //直方图每个桶的上限（包含），ms，最后一个桶记录超过最大上限的值
+    private static final long[] BUCKET_UPPER_BOUNDS = {4, 8, 12, 16, 20, 33, 50, 100, 250, 500, 1000};
+    private static final int BUCKET_SIZE = BUCKET_UPPER_BOUNDS.length + 1;
+
+    private long mGestureCount = 0;
+    private final long[] mTotalCounters = new long[COUNTER_SIZE];
+    //进行中的手势
+    private final long[] mGestureCounters = new long[COUNTER_SIZE];
+    //最后一次结束的手势
+    private final long[] mLastGestureCounters = new long[COUNTER_SIZE];
+    private final long[][] mHistogramBuckets = new long[HISTOGRAM_SIZE][BUCKET_SIZE];
+    private final long[] mHistogramSums = new long[HISTOGRAM_SIZE];
+    private final long[] mHistogramMaxValues = new long[HISTOGRAM_SIZE];
+
+    PullExpandMetrics() {
+    }
+
+    /**
+     * 计数器加一
+     *
+     * @param counter 计数器
+     */
+    void increment(int counter) {
+        mTotalCounters[counter]++;
+        mGestureCounters[counter]++;
+    }
+
+    /**
+     * 手势开始，清空进行中的手势计数
+     */
+    void onGestureStart() {
+        for (int i = 0; i < COUNTER_SIZE; i++) {
+            mGestureCounters[i] = 0;
+        }
+    }
+
+    /**
+     * 手势结束，保存为最后一次手势的计数
+     */
+    void onGestureEnd() {
+        mGestureCount++;
+        System.arraycopy(mGestureCounters, 0, mLastGestureCounters, 0, COUNTER_SIZE);
+    }
+
+    /**
+     * 记录一个值到直方图
+     *
+     * @param histogram 直方图
+     * @param valueMs   值，ms
+     */
+    void record(int histogram, long valueMs) {
+        if (valueMs < 0) {
+            valueMs = 0;
+        }
+        int bucket = 0;
+        while (bucket < BUCKET_UPPER_BOUNDS.length && valueMs > BUCKET_UPPER_BOUNDS[bucket]) {
+            bucket++;
+        }
+        mHistogramBuckets[histogram][bucket]++;
+        mHistogramSums[histogram] += valueMs;
+        if (valueMs > mHistogramMaxValues[histogram]) {
+            mHistogramMaxValues[histogram] = valueMs;
+        }
+    }
+
+    /**
+     * @return 结束的手势数量
+     */
+    public long getGestureCount() {
+        return mGestureCount;
+    }
+
+    /**
+     * 获取计数器的累计值
+     *
+     * @param counter 计数器 COUNTER_XXX
+     * @return 累计值
+     */
+    public long getTotalCount(int counter) {
+        return mTotalCounters[counter];
+    }
+
+    /**
+     * 获取最后一次结束的手势中计数器的值
+     *
+     * @param counter 计数器 COUNTER_XXX
+     * @return 最后一次手势中的值
+     */
+    public long getLastGestureCount(int counter) {
+        return mLastGestureCounters[counter];
+    }
+
+    /**
+     * @return 直方图桶的数量
+     */
+    public int getBucketCount() {
+        return BUCKET_SIZE;
+    }
+
+    /**
+     * 获取直方图桶的上限（包含）
+     *
+     * @param bucket 桶
+     * @return 上限 ms，最后一个桶为 Long.MAX_VALUE
+     */
+    public long getBucketUpperBound(int bucket) {
+        return bucket < BUCKET_UPPER_BOUNDS.length ? BUCKET_UPPER_BOUNDS[bucket] : Long.MAX_VALUE;
+    }
+
+    /**
+     * 获取直方图中落在指定桶中的数量
+     *
+     * @param histogram 直方图 HISTOGRAM_XXX
+     * @param bucket    桶
+     * @return 数量
+     */
+    public long getHistogramCount(int histogram, int bucket) {
+        return mHistogramBuckets[histogram][bucket];
+    }
+
+    /**
+     * 获取直方图记录的总数
+     *
+     * @param histogram 直方图 HISTOGRAM_XXX
+     * @return 总数
+     */
+    public long getHistogramTotalCount(int histogram) {
+        long count = 0;
+        for (long bucketCount : mHistogramBuckets[histogram]) {
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    /**
+     * 获取直方图记录的值的总和，除以总数即为平均值
+     *
+     * @param histogram 直方图 HISTOGRAM_XXX
+     * @return 总和 ms
+     */
+    public long getHistogramSum(int histogram) {
+        return mHistogramSums[histogram];
+    }
+
+    /**
+     * 获取直方图记录的最大值
+     *
+     * @param histogram 直方图 HISTOGRAM_XXX
+     * @return 最大值 ms
+     */
+    public long getHistogramMax(int histogram) {
+        return mHistogramMaxValues[histogram];
+    }
+
+    /**
+     * 复制当前的统计数据，不会产生新的对象
+     *
+     * @param out 复制到的对象，可以通过 {@link #snapshot()} 创建
+     * @return out
+     */
+    @NonNull
+    public PullExpandMetrics snapshot(@NonNull PullExpandMetrics out) {
+        out.mGestureCount = mGestureCount;
+        System.arraycopy(mTotalCounters, 0, out.mTotalCounters, 0, COUNTER_SIZE);
+        System.arraycopy(mGestureCounters, 0, out.mGestureCounters, 0, COUNTER_SIZE);
+        System.arraycopy(mLastGestureCounters, 0, out.mLastGestureCounters, 0, COUNTER_SIZE);
+        for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+            System.arraycopy(mHistogramBuckets[i], 0, out.mHistogramBuckets[i], 0, BUCKET_SIZE);
+        }
+        System.arraycopy(mHistogramSums, 0, out.mHistogramSums, 0, HISTOGRAM_SIZE);
+        System.arraycopy(mHistogramMaxValues, 0, out.mHistogramMaxValues, 0, HISTOGRAM_SIZE);
+        return out;
+    }
+
+    /**
+     * 复制当前的统计数据到新的对象
+     *
+     * @return 新的对象
+     */
+    @NonNull
+    public PullExpandMetrics snapshot() {
+        return snapshot(new PullExpandMetrics());
+    }
+
+    /**
+     * 清空所有统计数据，比如上报之后
+     */
+    public void reset() {
+        mGestureCount = 0;
+        for (int i = 0; i < COUNTER_SIZE; i++) {
+            mTotalCounters[i] = 0;
+            mGestureCounters[i] = 0;
+            mLastGestureCounters[i] = 0;
+        }
+        for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+            for (int j = 0; j < BUCKET_SIZE; j++) {
+                mHistogramBuckets[i][j] = 0;
+            }
+            mHistogramSums[i] = 0;
+            mHistogramMaxValues[i] = 0;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.zyyoona7.pullexpandx;
+
+import android.os.Build;
+import android.os.Trace;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 在 systrace/Perfetto 中标记 PullExpandLayout 的关键路径，通过 {@link PullExpandLayout#setTraceEnabled(boolean)} 开启
+ * 关闭时每个标记点只有一次静态变量的判断；section 名称都是常量，不会拼接字符串
+ */
+final class PullExpandTrace {
+
+    static final String SECTION_DISPATCH_TOUCH_EVENT = "PullExpandLayout#dispatchTouchEvent";
+    static final String SECTION_DO_SCROLL = "PullExpandLayout#doScroll";
+    static final String SECTION_DO_ON_SCROLL_AND_DRAG = "PullExpandLayout#doOnScrollAndDrag";
+    static final String SECTION_DISPATCH_LISTENERS = "PullExpandLayout#dispatchListeners";
+    static final String SECTION_COMPUTE_SCROLL_TO_STATE = "PullExpandLayout#computeScrollToState";
+    static final String SECTION_CHECK_FINAL_STATE = "PullExpandLayout#checkFinalHeaderFooterState";
+
+    //计数器
+    static final int COUNTER_OFFSET = 0;
+    static final int COUNTER_HEADER_STATE = 1;
+    static final int COUNTER_FOOTER_STATE = 2;
+    //和计数器的值一一对应
+    private static final String[] COUNTER_NAMES = {
+            "PullExpandLayout#offset",
+            "PullExpandLayout#headerState",
+            "PullExpandLayout#footerState"
+    };
+
+    //是否开启，所有 PullExpandLayout 共用
+    static boolean sEnabled = false;
+
+    //每个计数器最后一次记录的值，值不变时不重复记录
+    private static final long[] sCounterValues = new long[COUNTER_NAMES.length];
+
+    static {
+        resetCounterValues();
+    }
+
+    private PullExpandTrace() {
+    }
+
+    /**
+     * 开始一个 section，必须在同一个线程调用 {@link #endSection()} 结束
+     *
+     * @param sectionName section 名称
+     */
+    static void beginSection(@NonNull String sectionName) {
+        if (sEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.beginSection(sectionName);
+        }
+    }
+
+    /**
+     * 结束最近开始的 section
+     */
+    static void endSection() {
+        if (sEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * 更新计数器，只在值变化时记录，API 29 以下没有公开的计数器接口，不记录
+     *
+     * @param counter 计数器 COUNTER_XXX
+     * @param value   值
+     */
+    static void setCounter(int counter, long value) {
+        if (sEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                && sCounterValues[counter] != value) {
+            sCounterValues[counter] = value;
+            Trace.setCounter(COUNTER_NAMES[counter], value);
+        }
+    }
+
+    /**
+     * 开启或者关闭，需要在主线程并且不在 PullExpandLayout 的回调中调用，保证 section 成对出现
+     *
+     * @param enabled 是否开启
+     */
+    static void setEnabled(boolean enabled) {
+        if (enabled && !sEnabled) {
+            //重新开启时 trace 中没有之前的值，所有计数器都需要重新记录
+            resetCounterValues();
+        }
+        sEnabled = enabled;
+    }
+
+    private static void resetCounterValues() {
+        for (int i = 0; i < sCounterValues.length; i++) {
+            sCounterValues[i] = Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.zyyoona7.pullexpandx;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Scroller 方式的动画引擎，固定时长，有起始速度时根据速度缩短时长
+ * 曲线与 Scroller 默认的 ViscousFluidInterpolator 一致，时间来自 {@link AnimationTimeSource}，
+ * 替换时间源后可以和 {@link SpringSettleEngine} 一样逐帧驱动
+ */
+class ScrollerSettleEngine implements SettleEngine {
+
+    //默认的滚动时长
+    private static final int DEFAULT_SCROLL_DURATION = 300;
+    //快速滑动松手后的最短滚动时长
+    private static final int MIN_FLING_SCROLL_DURATION = 100;
+    //不执行动画时的滚动时长
+    private static final int NO_ANIMATE_SCROLL_DURATION = 16;
+
+    //ViscousFluidInterpolator 的参数
+    private static final float VISCOUS_FLUID_SCALE = 8.0f;
+    private static final float VISCOUS_FLUID_NORMALIZE = 1.0f / viscousFluid(1.0f);
+    private static final float VISCOUS_FLUID_OFFSET = 1.0f - VISCOUS_FLUID_NORMALIZE * viscousFluid(1.0f);
+
+    private final AnimationTimeSource mTimeSource;
+
+    private boolean mIsFinished = true;
+    private long mStartTime;
+    private int mDuration;
+    private int mStartOffset;
+    private int mFinalOffset;
+    private int mCurrOffset;
+
+    ScrollerSettleEngine(@NonNull AnimationTimeSource timeSource) {
+        mTimeSource = timeSource;
+    }
+
+    @Override
+    public void start(int startOffset, int endOffset, float velocity, boolean isAnimate) {
+        mStartOffset = startOffset;
+        mCurrOffset = startOffset;
+        mFinalOffset = endOffset;
+        mDuration = getScrollDuration(endOffset - startOffset, isAnimate, velocity);
+        mStartTime = mTimeSource.currentTimeMillis();
+        mIsFinished = false;
+    }
+
+    @Override
+    public void retarget(int endOffset) {
+        //固定时长的曲线无法修改目标，从当前位置重新开始
+        start(mCurrOffset, endOffset, 0f, true);
+    }
+
+    /**
+     * 计算滚动时长，有起始速度时按照速度缩短时长，使松手后的运动保持连贯
+     *
+     * @param delta     滚动距离
+     * @param isAnimate 是否执行动画滚动
+     * @param velocity  起始速度
+     * @return 滚动时长
+     */
+    private int getScrollDuration(int delta, boolean isAnimate, float velocity) {
+        if (!isAnimate) {
+            return NO_ANIMATE_SCROLL_DURATION;
+        }
+        //速度方向和滚动方向一致时才使用
+        if (velocity == 0 || delta * velocity < 0) {
+            return DEFAULT_SCROLL_DURATION;
+        }
+        //Scroller 默认插值器起始斜率约为 2，按照起始速度和松手速度一致计算时长
+        int duration = (int) (2000f * Math.abs(delta) / Math.abs(velocity));
+        return Math.max(MIN_FLING_SCROLL_DURATION, Math.min(duration, DEFAULT_SCROLL_DURATION));
+    }
+
+    @Override
+    public boolean computeOffset() {
+        if (mIsFinished) {
+            return false;
+        }
+        long timePassed = mTimeSource.currentTimeMillis() - mStartTime;
+        if (timePassed < mDuration) {
+            float fraction = getInterpolation((float) timePassed / mDuration);
+            mCurrOffset = mStartOffset + Math.round(fraction * (mFinalOffset - mStartOffset));
+        } else {
+            mCurrOffset = mFinalOffset;
+            mIsFinished = true;
+        }
+        return true;
+    }
+
+    @Override
+    public int getCurrOffset() {
+        return mCurrOffset;
+    }
+
+    @Override
+    public int getFinalOffset() {
+        return mFinalOffset;
+    }
+
+    @Override
+    public float getCurrVelocity() {
+        if (mIsFinished) {
+            return 0f;
+        }
+        //插值曲线在当前时刻的斜率，取 1ms 的差分
+        long timePassed = mTimeSource.currentTimeMillis() - mStartTime;
+        float fraction = (float) timePassed / mDuration;
+        float nextFraction = (float) (timePassed + 1) / mDuration;
+        return (getInterpolation(nextFraction) - getInterpolation(fraction))
+                * (mFinalOffset - mStartOffset) * 1000f;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return mIsFinished;
+    }
+
+    @Override
+    public void forceFinished() {
+        mIsFinished = true;
+    }
+
+    /**
+     * 与 Scroller 默认插值器相同的曲线
+     *
+     * @param input 时间进度 [0,1]
+     * @return 位移进度
+     */
+    private static float getInterpolation(float input) {
+        if (input >= 1f) {
+            return 1f;
+        }
+        float interpolated = VISCOUS_FLUID_NORMALIZE * viscousFluid(input);
+        if (interpolated > 0) {
+            return interpolated + VISCOUS_FLUID_OFFSET;
+        }
+        return interpolated;
+    }
+
+    private static float viscousFluid(float x) {
+        x *= VISCOUS_FLUID_SCALE;
+        if (x < 1.0f) {
+            x -= (1.0f - (float) Math.exp(-x));
+        } else {
+            //1/e == exp(-1)
+            float start = 0.36787944117f;
+            x = 1.0f - (float) Math.exp(1.0f - x);
+            x = start + x * (1.0f - start);
+        }
+        return x;
+    }
+}
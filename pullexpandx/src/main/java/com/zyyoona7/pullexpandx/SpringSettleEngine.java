@@ -0,0 +1,187 @@
+package com.zyyoona7.pullexpandx;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 基于阻尼弹簧的动画引擎，不依赖第三方库
+ * 运动时长由距离、速度、刚度和阻尼比共同决定，距离短的滚动结束得更快，
+ * 并且可以在运动过程中修改目标，当前速度会延续到新的目标
+ */
+class SpringSettleEngine implements SettleEngine {
+
+    //默认刚度，与 SpringForce.STIFFNESS_MEDIUM 一致
+    static final float DEFAULT_STIFFNESS = 1500f;
+    //默认阻尼比，1 为临界阻尼，不会越过目标
+    static final float DEFAULT_DAMPING_RATIO = 1f;
+
+    //距离目标小于此值并且速度小于 VELOCITY_THRESHOLD 时停止
+    private static final float DISPLACEMENT_THRESHOLD = 0.5f;
+    //px/s
+    private static final float VELOCITY_THRESHOLD = 30f;
+    //最长运动时间，防止参数异常时一直运动
+    private static final long MAX_DURATION = 3000;
+
+    private final AnimationTimeSource mTimeSource;
+    private float mStiffness = DEFAULT_STIFFNESS;
+    private float mDampingRatio = DEFAULT_DAMPING_RATIO;
+
+    private boolean mIsFinished = true;
+    //当前段运动的起始时间、相对目标的起始位移和起始速度
+    private long mSegmentStartTime;
+    private float mStartDisplacement;
+    private float mStartVelocity;
+    private long mStartTime;
+
+    private int mFinalOffset;
+    private float mCurrPosition;
+    private float mCurrVelocity;
+
+    SpringSettleEngine(@NonNull AnimationTimeSource timeSource) {
+        mTimeSource = timeSource;
+    }
+
+    void setStiffness(float stiffness) {
+        if (stiffness > 0) {
+            mStiffness = stiffness;
+        }
+    }
+
+    float getStiffness() {
+        return mStiffness;
+    }
+
+    void setDampingRatio(float dampingRatio) {
+        if (dampingRatio > 0) {
+            mDampingRatio = dampingRatio;
+        }
+    }
+
+    float getDampingRatio() {
+        return mDampingRatio;
+    }
+
+    @Override
+    public void start(int startOffset, int endOffset, float velocity, boolean isAnimate) {
+        mFinalOffset = endOffset;
+        mCurrPosition = startOffset;
+        mCurrVelocity = isAnimate ? velocity : 0f;
+        mIsFinished = false;
+        mStartTime = mTimeSource.currentTimeMillis();
+        if (!isAnimate) {
+            //下一次 computeOffset 直接到达目标
+            mStartDisplacement = 0f;
+            mStartVelocity = 0f;
+            mCurrPosition = endOffset;
+            mSegmentStartTime = mStartTime;
+            return;
+        }
+        startSegment(mStartTime);
+    }
+
+    @Override
+    public void retarget(int endOffset) {
+        if (mIsFinished) {
+            start(Math.round(mCurrPosition), endOffset, 0f, true);
+            return;
+        }
+        long now = mTimeSource.currentTimeMillis();
+        //先更新到当前时刻，再以当前的位置和速度开始新的一段运动
+        update(now);
+        mFinalOffset = endOffset;
+        startSegment(now);
+    }
+
+    private void startSegment(long time) {
+        mSegmentStartTime = time;
+        mStartDisplacement = mCurrPosition - mFinalOffset;
+        mStartVelocity = mCurrVelocity;
+    }
+
+    @Override
+    public boolean computeOffset() {
+        if (mIsFinished) {
+            return false;
+        }
+        long now = mTimeSource.currentTimeMillis();
+        update(now);
+        if ((Math.abs(mCurrPosition - mFinalOffset) < DISPLACEMENT_THRESHOLD
+                && Math.abs(mCurrVelocity) < VELOCITY_THRESHOLD)
+                || now - mStartTime > MAX_DURATION) {
+            mCurrPosition = mFinalOffset;
+            mCurrVelocity = 0f;
+            mIsFinished = true;
+        }
+        return true;
+    }
+
+    /**
+     * 根据阻尼弹簧的解析解计算指定时刻的位置和速度
+     *
+     * @param time 时刻，ms
+     */
+    private void update(long time) {
+        float t = (time - mSegmentStartTime) / 1000f;
+        float x0 = mStartDisplacement;
+        float v0 = mStartVelocity;
+        double omega = Math.sqrt(mStiffness);
+        double zeta = mDampingRatio;
+        double x;
+        double v;
+        if (zeta < 1) {
+            //欠阻尼
+            double dampedOmega = omega * Math.sqrt(1 - zeta * zeta);
+            double a = zeta * omega;
+            double b = (v0 + a * x0) / dampedOmega;
+            double decay = Math.exp(-a * t);
+            double cos = Math.cos(dampedOmega * t);
+            double sin = Math.sin(dampedOmega * t);
+            x = decay * (x0 * cos + b * sin);
+            v = decay * (v0 * cos - (x0 * dampedOmega + a * b) * sin);
+        } else if (zeta == 1) {
+            //临界阻尼
+            double b = v0 + omega * x0;
+            double decay = Math.exp(-omega * t);
+            x = (x0 + b * t) * decay;
+            v = (v0 - omega * t * b) * decay;
+        } else {
+            //过阻尼
+            double root = Math.sqrt(zeta * zeta - 1);
+            double r1 = -omega * (zeta - root);
+            double r2 = -omega * (zeta + root);
+            double c2 = (v0 - r1 * x0) / (r2 - r1);
+            double c1 = x0 - c2;
+            double e1 = Math.exp(r1 * t);
+            double e2 = Math.exp(r2 * t);
+            x = c1 * e1 + c2 * e2;
+            v = c1 * r1 * e1 + c2 * r2 * e2;
+        }
+        mCurrPosition = (float) (mFinalOffset + x);
+        mCurrVelocity = (float) v;
+    }
+
+    @Override
+    public int getCurrOffset() {
+        return Math.round(mCurrPosition);
+    }
+
+    @Override
+    public int getFinalOffset() {
+        return mFinalOffset;
+    }
+
+    @Override
+    public float getCurrVelocity() {
+        return mCurrVelocity;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return mIsFinished;
+    }
+
+    @Override
+    public void forceFinished() {
+        mIsFinished = true;
+        mCurrVelocity = 0f;
+    }
+}
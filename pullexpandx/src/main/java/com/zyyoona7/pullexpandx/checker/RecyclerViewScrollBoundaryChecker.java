@@ -0,0 +1,116 @@
+package com.zyyoona7.pullexpandx.checker;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * RecyclerView 的边界检查器
+ * RecyclerView 的 canScrollVertically 每次都要通过 LayoutManager 计算滚动偏移，
+ * 这里只在 RecyclerView 滚动（包括布局后可见范围变化）或者新的手势开始时重新计算一次，
+ * 其余时间直接返回缓存的边界状态
+ */
+public class RecyclerViewScrollBoundaryChecker implements ScrollBoundaryChecker {
+
+    private final RecyclerView mRecyclerView;
+
+    //边界状态是否需要重新计算
+    private boolean mIsEdgeStateDirty = true;
+    private boolean mIsScrollToTop;
+    private boolean mIsScrollToBottom;
+    private boolean mIsScrollToLeft;
+    private boolean mIsScrollToRight;
+
+    private final RecyclerView.OnScrollListener mOnScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+            mIsEdgeStateDirty = true;
+        }
+
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            mIsEdgeStateDirty = true;
+        }
+    };
+
+    private final RecyclerView.OnItemTouchListener mOnItemTouchListener = new RecyclerView.SimpleOnItemTouchListener() {
+        @Override
+        public boolean onInterceptTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+            //新的手势开始时重新计算，防止数据变化后没有滚动导致缓存过期
+            if (e.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                mIsEdgeStateDirty = true;
+            }
+            return false;
+        }
+    };
+
+    public RecyclerViewScrollBoundaryChecker(@NonNull RecyclerView recyclerView) {
+        mRecyclerView = recyclerView;
+        mRecyclerView.addOnScrollListener(mOnScrollListener);
+        mRecyclerView.addOnItemTouchListener(mOnItemTouchListener);
+    }
+
+    /**
+     * 标记边界状态需要重新计算，在没有滚动的情况下数据发生变化时可以手动调用
+     */
+    public void invalidate() {
+        mIsEdgeStateDirty = true;
+    }
+
+    /**
+     * 移除对 RecyclerView 的监听
+     */
+    public void release() {
+        mRecyclerView.removeOnScrollListener(mOnScrollListener);
+        mRecyclerView.removeOnItemTouchListener(mOnItemTouchListener);
+    }
+
+    private void ensureEdgeState() {
+        if (!mIsEdgeStateDirty) {
+            return;
+        }
+        mIsScrollToTop = !mRecyclerView.canScrollVertically(-1);
+        mIsScrollToBottom = !mRecyclerView.canScrollVertically(1);
+        mIsScrollToLeft = !mRecyclerView.canScrollHorizontally(-1);
+        mIsScrollToRight = !mRecyclerView.canScrollHorizontally(1);
+        mIsEdgeStateDirty = false;
+    }
+
+    @Override
+    public boolean isScrollToTop(@NonNull View contentView) {
+        if (contentView != mRecyclerView) {
+            return !contentView.canScrollVertically(-1);
+        }
+        ensureEdgeState();
+        return mIsScrollToTop;
+    }
+
+    @Override
+    public boolean isScrollToBottom(@NonNull View contentView) {
+        if (contentView != mRecyclerView) {
+            return !contentView.canScrollVertically(1);
+        }
+        ensureEdgeState();
+        return mIsScrollToBottom;
+    }
+
+    @Override
+    public boolean isScrollToLeft(@NonNull View contentView) {
+        if (contentView != mRecyclerView) {
+            return !contentView.canScrollHorizontally(-1);
+        }
+        ensureEdgeState();
+        return mIsScrollToLeft;
+    }
+
+    @Override
+    public boolean isScrollToRight(@NonNull View contentView) {
+        if (contentView != mRecyclerView) {
+            return !contentView.canScrollHorizontally(1);
+        }
+        ensureEdgeState();
+        return mIsScrollToRight;
+    }
+}
@@ -0,0 +1,44 @@
+package com.zyyoona7.pullexpandx.checker;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 边界检查器，用来判断 contentView 是否已经滚动到边界
+ * 每个 ACTION_MOVE 都会调用，实现类需要尽量轻量
+ */
+public interface ScrollBoundaryChecker {
+
+    /**
+     * 是否滚动到顶部，不能继续向上滚动
+     *
+     * @param contentView content view
+     * @return 是否滚动到顶部
+     */
+    boolean isScrollToTop(@NonNull View contentView);
+
+    /**
+     * 是否滚动到底部，不能继续向下滚动
+     *
+     * @param contentView content view
+     * @return 是否滚动到底部
+     */
+    boolean isScrollToBottom(@NonNull View contentView);
+
+    /**
+     * 是否滚动到最左侧，不能继续向左滚动
+     *
+     * @param contentView content view
+     * @return 是否滚动到最左侧
+     */
+    boolean isScrollToLeft(@NonNull View contentView);
+
+    /**
+     * 是否滚动到最右侧，不能继续向右滚动
+     *
+     * @param contentView content view
+     * @return 是否滚动到最右侧
+     */
+    boolean isScrollToRight(@NonNull View contentView);
+}
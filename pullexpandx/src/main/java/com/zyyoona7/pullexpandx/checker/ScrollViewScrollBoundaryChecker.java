@@ -0,0 +1,62 @@
+package com.zyyoona7.pullexpandx.checker;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+
+/**
+ * ScrollView、NestedScrollView、HorizontalScrollView 的边界检查器
+ * 这类控件只有一个子 View，直接比较 scrollY/scrollX 和子 View 的边界即可
+ */
+public class ScrollViewScrollBoundaryChecker implements ScrollBoundaryChecker {
+
+    @Override
+    public boolean isScrollToTop(@NonNull View contentView) {
+        return contentView.getScrollY() <= 0;
+    }
+
+    @Override
+    public boolean isScrollToBottom(@NonNull View contentView) {
+        View child = getScrollChild(contentView);
+        if (child == null) {
+            return !contentView.canScrollVertically(1);
+        }
+        return child.getBottom() + getBottomMargin(child)
+                <= contentView.getScrollY() + contentView.getHeight() - contentView.getPaddingBottom();
+    }
+
+    @Override
+    public boolean isScrollToLeft(@NonNull View contentView) {
+        return contentView.getScrollX() <= 0;
+    }
+
+    @Override
+    public boolean isScrollToRight(@NonNull View contentView) {
+        View child = getScrollChild(contentView);
+        if (child == null) {
+            return !contentView.canScrollHorizontally(1);
+        }
+        return child.getRight() + getRightMargin(child)
+                <= contentView.getScrollX() + contentView.getWidth() - contentView.getPaddingRight();
+    }
+
+    private View getScrollChild(View contentView) {
+        if (contentView instanceof ViewGroup && ((ViewGroup) contentView).getChildCount() > 0) {
+            return ((ViewGroup) contentView).getChildAt(0);
+        }
+        return null;
+    }
+
+    private int getBottomMargin(View child) {
+        ViewGroup.LayoutParams layoutParams = child.getLayoutParams();
+        return layoutParams instanceof ViewGroup.MarginLayoutParams
+                ? ((ViewGroup.MarginLayoutParams) layoutParams).bottomMargin : 0;
+    }
+
+    private int getRightMargin(View child) {
+        ViewGroup.LayoutParams layoutParams = child.getLayoutParams();
+        return layoutParams instanceof ViewGroup.MarginLayoutParams
+                ? ((ViewGroup.MarginLayoutParams) layoutParams).rightMargin : 0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.zyyoona7.pullexpandx.listener;
+
+import com.zyyoona7.pullexpandx.PullExpandLayout;
+
+/**
+ * Header Footer 是否露出可见区域
+ * 完全移出可见区域后不再绘制，可以在这里暂停轮播、动图等自动播放的内容，露出时恢复
+ * 每次变化只回调一次
+ */
+public interface OnPullExpandVisibilityListener {
+
+    /**
+     * Header 露出或者完全移出可见区域
+     *
+     * @param layout    PullExpandLayout
+     * @param isVisible 是否露出
+     */
+    void onHeaderVisibilityChanged(PullExpandLayout layout, boolean isVisible);
+
+    /**
+     * Footer 露出或者完全移出可见区域
+     *
+     * @param layout    PullExpandLayout
+     * @param isVisible 是否露出
+     */
+    void onFooterVisibilityChanged(PullExpandLayout layout, boolean isVisible);
+}
@@ -6,16 +6,20 @@ import androidx.annotation.NonNull;
 
 import com.zyyoona7.pullexpandx.PullExpandLayout;
 
-public class DefaultPullExpandTransformer implements PullExpandTransformer {
+/**
+ * 默认的变换器，设置的平移量包含 OFFSET_MODE_TRANSLATION 下偏移对应的平移量，
+ * 继承时设置平移量也需要加上 {@link PullExpandLayout#getOffsetTranslationX()} 或者 {@link PullExpandLayout#getOffsetTranslationY()}
+ */
+public class DefaultPullExpandTransformer implements OffsetAwarePullExpandTransformer {
 
     @Override
     public void transformHeader(PullExpandLayout layout, int orientation, int dragType, @NonNull View headerView,
                                 int heightOrWidth, int scrollYOrX) {
         if (dragType == PullExpandLayout.DRAG_TYPE_FIXED_BEHIND) {
             if (isVertical(orientation)) {
-                headerView.setTranslationY(heightOrWidth + scrollYOrX);
+                headerView.setTranslationY(heightOrWidth + scrollYOrX + layout.getOffsetTranslationY());
             } else {
-                headerView.setTranslationX(heightOrWidth + scrollYOrX);
+                headerView.setTranslationX(heightOrWidth + scrollYOrX + layout.getOffsetTranslationX());
             }
         }
     }
@@ -25,9 +29,9 @@ public class DefaultPullExpandTransformer implements PullExpandTransformer {
                                 int heightOrWidth, int scrollYOrX) {
         if (dragType == PullExpandLayout.DRAG_TYPE_FIXED_BEHIND) {
             if (isVertical(orientation)) {
-                footerView.setTranslationY(-heightOrWidth + scrollYOrX);
+                footerView.setTranslationY(-heightOrWidth + scrollYOrX + layout.getOffsetTranslationY());
             } else {
-                footerView.setTranslationX(-heightOrWidth + scrollYOrX);
+                footerView.setTranslationX(-heightOrWidth + scrollYOrX + layout.getOffsetTranslationX());
             }
         }
     }
@@ -37,9 +41,9 @@ public class DefaultPullExpandTransformer implements PullExpandTransformer {
                                  int heightOrWidth, int scrollYOrX) {
         if (dragType == PullExpandLayout.DRAG_TYPE_FIXED_FOREGROUND) {
             if (isVertical(orientation)) {
-                contentView.setTranslationY(scrollYOrX);
+                contentView.setTranslationY(scrollYOrX + layout.getOffsetTranslationY());
             } else {
-                contentView.setTranslationX(scrollYOrX);
+                contentView.setTranslationX(scrollYOrX + layout.getOffsetTranslationX());
             }
         }
     }
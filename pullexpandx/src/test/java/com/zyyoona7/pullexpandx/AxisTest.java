@@ -0,0 +1,111 @@
+package com.zyyoona7.pullexpandx;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.core.view.ViewCompat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 坐标轴上的分量选取和映射，以及四边模式下切换方向后的坐标轴
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class AxisTest {
+
+    @Test
+    public void ofSelectsAxisByOrientation() {
+        assertSame(Axis.VERTICAL, Axis.of(HeaderFooterLayout.VERTICAL));
+        assertSame(Axis.HORIZONTAL, Axis.of(HeaderFooterLayout.HORIZONTAL));
+    }
+
+    @Test
+    public void verticalAxisSelectsY() {
+        assertEquals(-20, Axis.VERTICAL.select(10, -20));
+        assertEquals(-20.5f, Axis.VERTICAL.select(10.5f, -20.5f), 0f);
+        assertEquals(1, Axis.VERTICAL.getIndex());
+        assertEquals(ViewCompat.SCROLL_AXIS_VERTICAL, Axis.VERTICAL.getNestedScrollAxis());
+    }
+
+    @Test
+    public void horizontalAxisSelectsX() {
+        assertEquals(10, Axis.HORIZONTAL.select(10, -20));
+        assertEquals(10.5f, Axis.HORIZONTAL.select(10.5f, -20.5f), 0f);
+        assertEquals(0, Axis.HORIZONTAL.getIndex());
+        assertEquals(ViewCompat.SCROLL_AXIS_HORIZONTAL, Axis.HORIZONTAL.getNestedScrollAxis());
+    }
+
+    @Test
+    public void mainOffsetMapsToAxisAndCrossOffsetIsZero() {
+        assertEquals(0, Axis.VERTICAL.toX(-300));
+        assertEquals(-300, Axis.VERTICAL.toY(-300));
+        assertEquals(-300, Axis.HORIZONTAL.toX(-300));
+        assertEquals(0, Axis.HORIZONTAL.toY(-300));
+        //选取映射后的分量得到原来的值
+        for (Axis axis : new Axis[]{Axis.VERTICAL, Axis.HORIZONTAL}) {
+            assertEquals(123, axis.select(axis.toX(123), axis.toY(123)));
+        }
+    }
+
+    @Test
+    public void indexMatchesSelect() {
+        int[] xy = {10, -20};
+        for (Axis axis : new Axis[]{Axis.VERTICAL, Axis.HORIZONTAL}) {
+            assertEquals(axis.select(xy[0], xy[1]), xy[axis.getIndex()]);
+        }
+    }
+
+    @Test
+    public void positionReadsAxisCoordinate() {
+        MotionEvent event = MotionEvent.obtain(0, 0, MotionEvent.ACTION_MOVE, 10f, 20f, 0);
+        event.addBatch(16, 30f, 40f, 1f, 1f, 0);
+        //addBatch 之后原来的采样点成为历史采样点
+        assertEquals(40f, Axis.VERTICAL.getPosition(event, 0), 0f);
+        assertEquals(30f, Axis.HORIZONTAL.getPosition(event, 0), 0f);
+        assertEquals(20f, Axis.VERTICAL.getHistoricalPosition(event, 0, 0), 0f);
+        assertEquals(10f, Axis.HORIZONTAL.getHistoricalPosition(event, 0, 0), 0f);
+        event.recycle();
+    }
+
+    @Test
+    public void swapCrossAxisMapsOffsetToNewAxis() {
+        PullExpandLayout layout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL);
+        VirtualAnimationClock clock = new VirtualAnimationClock();
+        layout.setAnimationClock(clock, clock);
+        View verticalHeader = layout.mHeaderView;
+        View horizontalHeader = PullExpandTestUtils.createEdgeView(RuntimeEnvironment.application,
+                HeaderFooterLayout.HORIZONTAL, View.NO_ID);
+        layout.setHeaderView(HeaderFooterLayout.HORIZONTAL, horizontalHeader);
+        PullExpandTestUtils.measureAndLayout(layout, PullExpandTestUtils.WIDTH, PullExpandTestUtils.HEIGHT);
+
+        //四边模式下切换方向，两个方向上的 Header 互换
+        layout.setOrientation(HeaderFooterLayout.HORIZONTAL);
+        assertEquals(HeaderFooterLayout.HORIZONTAL, layout.getOrientation());
+        assertSame(horizontalHeader, layout.mHeaderView);
+        assertSame(verticalHeader, layout.mCrossHeaderView);
+        assertEquals(PullExpandTestUtils.EDGE_SIZE, layout.getHeaderWidth());
+
+        //偏移只在水平方向
+        layout.setHeaderExpanded(HeaderFooterLayout.HORIZONTAL, true, false);
+        clock.runUntilIdle(1000);
+        assertEquals(-PullExpandTestUtils.EDGE_SIZE, layout.getScrollX());
+        assertEquals(0, layout.getScrollY());
+
+        //展开另一方向时先收起当前方向，再切换回垂直方向
+        layout.setHeaderExpanded(HeaderFooterLayout.VERTICAL, true, false);
+        clock.runUntilIdle(1000);
+        assertEquals(HeaderFooterLayout.VERTICAL, layout.getOrientation());
+        assertSame(verticalHeader, layout.mHeaderView);
+        assertSame(horizontalHeader, layout.mCrossHeaderView);
+        assertEquals(0, layout.getScrollX());
+        assertEquals(-PullExpandTestUtils.EDGE_SIZE, layout.getScrollY());
+    }
+}
@@ -0,0 +1,146 @@
+package com.zyyoona7.pullexpandx;
+
+import android.view.InputDevice;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 手势回放器，把 {@link PullExpandLayout#stopGestureRecording()} 得到的记录重新分发给 PullExpandLayout
+ * 回放时使用 {@link VirtualAnimationClock}，按照记录的事件时间逐帧推进，结果与运行的机器和执行速度无关，
+ * 最后一个事件之后继续推进到松手动画结束，回放结束后恢复默认的时钟
+ * 线上记录的手势放到 src/test/resources/gestures 中回放，单个事件的开销通过 {@link PullExpandMetrics} 的计数检查
+ */
+final class GestureReplayer {
+
+    //最后一个事件之后最多推进的时间，ms
+    private static final long MAX_SETTLE_TIME_MS = 10000;
+
+    private final byte[] mRecording;
+    private final VirtualAnimationClock mClock = new VirtualAnimationClock();
+
+    private int mEventCount = 0;
+
+    /**
+     * @param recording 记录的数据
+     * @throws IllegalArgumentException 不是手势记录或者版本不支持
+     */
+    GestureReplayer(@NonNull byte[] recording) {
+        ByteBuffer buffer = ByteBuffer.wrap(recording);
+        if (recording.length < 14 || buffer.getInt() != GestureRecorder.MAGIC) {
+            throw new IllegalArgumentException("Not a PullExpandLayout gesture recording.");
+        }
+        byte version = buffer.get();
+        if (version != GestureRecorder.VERSION) {
+            throw new IllegalArgumentException("Unsupported gesture recording version: " + version);
+        }
+        mRecording = recording;
+    }
+
+    /**
+     * 回放记录，会把 PullExpandLayout 设置为记录时的方向和尺寸
+     *
+     * @param layout PullExpandLayout
+     * @throws IllegalArgumentException 记录的数据不完整
+     */
+    void replay(@NonNull PullExpandLayout layout) {
+        mEventCount = 0;
+        mClock.reset();
+        layout.setAnimationClock(mClock, mClock);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(mRecording);
+            //跳过 MAGIC 和 VERSION
+            buffer.position(5);
+            layout.setOrientation(buffer.get() == HeaderFooterLayout.HORIZONTAL
+                    ? HeaderFooterLayout.HORIZONTAL : HeaderFooterLayout.VERTICAL);
+            applySize(layout, buffer.getInt(), buffer.getInt());
+            while (buffer.hasRemaining()) {
+                byte record = buffer.get();
+                if (record == GestureRecorder.RECORD_SIZE) {
+                    //先执行尺寸变化之前的帧，和记录时的先后顺序保持一致
+                    mClock.advanceTo(buffer.getInt());
+                    applySize(layout, buffer.getInt(), buffer.getInt());
+                } else if (record == GestureRecorder.RECORD_MOTION) {
+                    MotionEvent event = readMotionEvent(buffer);
+                    mClock.advanceTo(event.getEventTime());
+                    layout.dispatchTouchEvent(event);
+                    mEventCount++;
+                    event.recycle();
+                } else {
+                    throw new IllegalArgumentException("Unknown gesture record: " + record);
+                }
+            }
+            mClock.runUntilIdle(MAX_SETTLE_TIME_MS);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated gesture recording.", e);
+        } finally {
+            layout.resetAnimationClock();
+        }
+    }
+
+    /**
+     * @return 最后一次回放分发的事件数量
+     */
+    int getEventCount() {
+        return mEventCount;
+    }
+
+    /**
+     * 按照记录的尺寸重新测量和布局
+     *
+     * @param layout PullExpandLayout
+     * @param width  宽度
+     * @param height 高度
+     */
+    private static void applySize(PullExpandLayout layout, int width, int height) {
+        if (layout.getWidth() == width && layout.getHeight() == height) {
+            return;
+        }
+        layout.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        layout.layout(layout.getLeft(), layout.getTop(),
+                layout.getLeft() + width, layout.getTop() + height);
+    }
+
+    /**
+     * 读取一个事件，历史采样点通过 addBatch 还原
+     *
+     * @param buffer 记录的数据
+     * @return MotionEvent，使用后需要 recycle
+     */
+    private static MotionEvent readMotionEvent(ByteBuffer buffer) {
+        int action = buffer.getInt();
+        long downTime = buffer.getInt();
+        int pointerCount = buffer.get();
+        int historySize = buffer.getShort();
+        MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[pointerCount];
+        MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[pointerCount];
+        for (int p = 0; p < pointerCount; p++) {
+            properties[p] = new MotionEvent.PointerProperties();
+            properties[p].id = buffer.get();
+            properties[p].toolType = MotionEvent.TOOL_TYPE_FINGER;
+            coords[p] = new MotionEvent.PointerCoords();
+            coords[p].pressure = 1f;
+            coords[p].size = 1f;
+        }
+        MotionEvent event = null;
+        for (int h = 0; h <= historySize; h++) {
+            long eventTime = buffer.getInt();
+            for (int p = 0; p < pointerCount; p++) {
+                coords[p].x = buffer.getFloat();
+                coords[p].y = buffer.getFloat();
+            }
+            if (event == null) {
+                event = MotionEvent.obtain(downTime, eventTime, action, pointerCount, properties, coords,
+                        0, 0, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+            } else {
+                event.addBatch(eventTime, coords, 0);
+            }
+        }
+        return event;
+    }
+}
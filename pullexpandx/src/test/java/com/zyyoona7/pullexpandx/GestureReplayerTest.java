@@ -0,0 +1,269 @@
+package com.zyyoona7.pullexpandx;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ScrollView;
+
+import androidx.annotation.NonNull;
+
+import com.zyyoona7.pullexpandx.listener.SimpleOnPullExpandChangedListener;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 回放 src/test/resources/gestures 中的手势记录，检查最终状态、偏移序列和单个事件的开销
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class GestureReplayerTest {
+
+    private static final String VERTICAL_DRAG_RELEASE = "vertical_drag_release.pelg";
+    private static final String VERTICAL_FLING = "vertical_fling.pelg";
+    private static final String HORIZONTAL_DRAG_RELEASE = "horizontal_drag_release.pelg";
+    private static final String VERTICAL_NESTED_HANDOFF = "vertical_nested_handoff.pelg";
+
+    //每次偏移更新调用 Header、Content、Footer 三个转换器
+    private static final int TRANSFORMERS_PER_UPDATE = 3;
+    //每次偏移更新回调一个监听器的 onXxMoving 和 onXxStateChanged
+    private static final int LISTENER_CALLS_PER_UPDATE = 2;
+    //偏移不变时的额外回调，比如松手时的 onReleased 和动画结束时的状态同步
+    private static final int EXTRA_PASSES = 2;
+    //松手时根据偏移判断的临界值，默认为 Header Footer 尺寸的 1/3
+    private static final int DRAG_THRESHOLD = PullExpandTestUtils.EDGE_SIZE / 3;
+
+    @Test
+    public void verticalDragReleaseExpandsHeader() {
+        PullExpandLayout layout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL);
+        OffsetRecorder offsets = new OffsetRecorder();
+        layout.addOnPullExpandChangedListener(offsets);
+        GestureReplayer replayer = new GestureReplayer(readRecording(VERTICAL_DRAG_RELEASE));
+        replayer.replay(layout);
+
+        //DOWN + 61 次拖动 + 20 次停顿 + UP
+        assertEquals(83, replayer.getEventCount());
+        //停顿后松手没有速度，超过临界值后展开
+        assertTrue("released at " + offsets.mReleasedOffset, offsets.mReleasedOffset > DRAG_THRESHOLD
+                && offsets.mReleasedOffset < PullExpandTestUtils.EDGE_SIZE);
+        assertMonotonicTo(offsets.mHeaderOffsets, PullExpandTestUtils.EDGE_SIZE);
+        assertTrue(offsets.mFooterOffsets.isEmpty());
+        assertEquals(-PullExpandTestUtils.EDGE_SIZE, layout.getScrollY());
+        assertEquals(PullExpandLayout.STATE_EXPANDED, layout.getCurrentHeaderState());
+        assertEquals(PullExpandLayout.STATE_COLLAPSED, layout.getCurrentFooterState());
+    }
+
+    @Test
+    public void verticalFlingCollapsesBelowThresholdByDefault() {
+        PullExpandLayout layout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL);
+        OffsetRecorder offsets = new OffsetRecorder();
+        layout.addOnPullExpandChangedListener(offsets);
+        new GestureReplayer(readRecording(VERTICAL_FLING)).replay(layout);
+
+        //默认只按照临界值判断，没有超过临界值时收起
+        assertTrue("released at " + offsets.mReleasedOffset,
+                offsets.mReleasedOffset > 0 && offsets.mReleasedOffset < DRAG_THRESHOLD);
+        assertEquals(0, layout.getScrollY());
+        assertEquals(PullExpandLayout.STATE_COLLAPSED, layout.getCurrentHeaderState());
+    }
+
+    @Test
+    public void verticalFlingExpandsHeaderBelowThreshold() {
+        PullExpandLayout layout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL);
+        layout.setFlingReleaseEnabled(true);
+        OffsetRecorder offsets = new OffsetRecorder();
+        layout.addOnPullExpandChangedListener(offsets);
+        new GestureReplayer(readRecording(VERTICAL_FLING)).replay(layout);
+
+        //没有超过临界值，按照松手速度展开
+        assertTrue("released at " + offsets.mReleasedOffset,
+                offsets.mReleasedOffset > 0 && offsets.mReleasedOffset < DRAG_THRESHOLD);
+        assertMonotonicTo(offsets.mHeaderOffsets, PullExpandTestUtils.EDGE_SIZE);
+        assertEquals(-PullExpandTestUtils.EDGE_SIZE, layout.getScrollY());
+        assertEquals(PullExpandLayout.STATE_EXPANDED, layout.getCurrentHeaderState());
+    }
+
+    @Test
+    public void horizontalDragReleaseExpandsFooter() {
+        PullExpandLayout layout = PullExpandTestUtils.createLayout(HeaderFooterLayout.HORIZONTAL);
+        OffsetRecorder offsets = new OffsetRecorder();
+        layout.addOnPullExpandChangedListener(offsets);
+        new GestureReplayer(readRecording(HORIZONTAL_DRAG_RELEASE)).replay(layout);
+
+        assertTrue("released at " + offsets.mReleasedOffset, offsets.mReleasedOffset > DRAG_THRESHOLD
+                && offsets.mReleasedOffset < PullExpandTestUtils.EDGE_SIZE);
+        assertMonotonicTo(offsets.mFooterOffsets, PullExpandTestUtils.EDGE_SIZE);
+        assertTrue(offsets.mHeaderOffsets.isEmpty());
+        assertEquals(PullExpandTestUtils.EDGE_SIZE, layout.getScrollX());
+        assertEquals(0, layout.getScrollY());
+        assertEquals(PullExpandLayout.STATE_EXPANDED, layout.getCurrentFooterState());
+    }
+
+    @Test
+    public void nestedHandoffExpandsHeaderAfterContentReachesTop() {
+        final ScrollView scrollView = new ScrollView(RuntimeEnvironment.application);
+        View child = new View(RuntimeEnvironment.application);
+        scrollView.addView(child, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                PullExpandTestUtils.HEIGHT * 2));
+        PullExpandLayout layout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL, scrollView);
+        scrollView.scrollTo(0, 200);
+        layout.setMetricsEnabled(true);
+        final List<Integer> contentScrollWhileMoving = new ArrayList<>();
+        layout.addOnPullExpandChangedListener(new SimpleOnPullExpandChangedListener() {
+            @Override
+            public void onHeaderMoving(int orientation, float percent, int offset,
+                                       int heightOrWidth, int maxDragDistance) {
+                contentScrollWhileMoving.add(scrollView.getScrollY());
+            }
+        });
+        new GestureReplayer(readRecording(VERTICAL_NESTED_HANDOFF)).replay(layout);
+
+        //内容先滚动到顶部，之后只有 PullExpandLayout 移动，并且只接管一次
+        assertEquals(0, scrollView.getScrollY());
+        assertTrue(!contentScrollWhileMoving.isEmpty());
+        for (int scrollY : contentScrollWhileMoving) {
+            assertEquals(0, scrollY);
+        }
+        assertEquals(1, layout.getMetrics().getTotalCount(PullExpandMetrics.COUNTER_HANDOFFS));
+        assertEquals(-PullExpandTestUtils.EDGE_SIZE, layout.getScrollY());
+        assertEquals(PullExpandLayout.STATE_EXPANDED, layout.getCurrentHeaderState());
+    }
+
+    @Test
+    public void replayIsDeterministic() {
+        List<Integer> first = replayHeaderOffsets(VERTICAL_DRAG_RELEASE);
+        List<Integer> second = replayHeaderOffsets(VERTICAL_DRAG_RELEASE);
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void perEventCostIsBounded() {
+        String[] recordings = {VERTICAL_DRAG_RELEASE, VERTICAL_FLING,
+                HORIZONTAL_DRAG_RELEASE, VERTICAL_NESTED_HANDOFF};
+        for (String name : recordings) {
+            int orientation = name.startsWith("horizontal")
+                    ? HeaderFooterLayout.HORIZONTAL : HeaderFooterLayout.VERTICAL;
+            PullExpandLayout layout = PullExpandTestUtils.createLayout(orientation);
+            layout.setFlingReleaseEnabled(true);
+            layout.addOnPullExpandChangedListener(new OffsetRecorder());
+            layout.setMetricsEnabled(true);
+            new GestureReplayer(readRecording(name)).replay(layout);
+            PullExpandMetrics metrics = layout.getMetrics();
+
+            //拖动中每个 MOVE 事件最多更新一次偏移，松手时最多再更新一次
+            long moveEvents = metrics.getLastGestureCount(PullExpandMetrics.COUNTER_MOVE_EVENTS);
+            long gestureOffsetUpdates = metrics.getLastGestureCount(PullExpandMetrics.COUNTER_OFFSET_UPDATES);
+            assertTrue(name + " move events", moveEvents > 0);
+            assertTrue(name + " " + gestureOffsetUpdates + " offset updates for " + moveEvents + " moves",
+                    gestureOffsetUpdates > 0 && gestureOffsetUpdates <= moveEvents + 1);
+
+            //包括松手动画，每次偏移更新最多调用一次 Header、Content、Footer 的转换器，
+            //一个 OnPullExpandChangedListener 最多回调 onXxMoving 和 onXxStateChanged 各一次
+            long offsetUpdates = metrics.getTotalCount(PullExpandMetrics.COUNTER_OFFSET_UPDATES);
+            long transformerCalls = metrics.getTotalCount(PullExpandMetrics.COUNTER_TRANSFORMER_CALLS);
+            long listenerCalls = metrics.getTotalCount(PullExpandMetrics.COUNTER_LISTENER_CALLS);
+            assertTrue(name + " " + transformerCalls + " transformer calls for " + offsetUpdates + " updates",
+                    transformerCalls <= TRANSFORMERS_PER_UPDATE * (offsetUpdates + EXTRA_PASSES));
+            assertTrue(name + " " + listenerCalls + " listener calls for " + offsetUpdates + " updates",
+                    listenerCalls <= LISTENER_CALLS_PER_UPDATE * (offsetUpdates + EXTRA_PASSES));
+        }
+    }
+
+    @Test
+    public void recordingRoundTrip() {
+        PullExpandLayout recorded = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL);
+        byte[] original = readRecording(VERTICAL_DRAG_RELEASE);
+        recorded.startGestureRecording();
+        new GestureReplayer(original).replay(recorded);
+        byte[] recording = recorded.stopGestureRecording();
+        assertNotNull(recording);
+
+        PullExpandLayout replayed = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL);
+        GestureReplayer replayer = new GestureReplayer(recording);
+        replayer.replay(replayed);
+        assertEquals(83, replayer.getEventCount());
+        assertEquals(recorded.getScrollY(), replayed.getScrollY());
+        assertEquals(recorded.getCurrentHeaderState(), replayed.getCurrentHeaderState());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownData() {
+        new GestureReplayer(new byte[32]);
+    }
+
+    private List<Integer> replayHeaderOffsets(String name) {
+        PullExpandLayout layout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL);
+        OffsetRecorder offsets = new OffsetRecorder();
+        layout.addOnPullExpandChangedListener(offsets);
+        new GestureReplayer(readRecording(name)).replay(layout);
+        return offsets.mHeaderOffsets;
+    }
+
+    /**
+     * 偏移只增不减，最后停在 target
+     */
+    private static void assertMonotonicTo(@NonNull List<Integer> offsets, int target) {
+        assertTrue(!offsets.isEmpty());
+        int last = 0;
+        for (int i = 0; i < offsets.size(); i++) {
+            int offset = offsets.get(i);
+            assertTrue("offset[" + i + "]=" + offset + " < " + last, offset >= last);
+            last = offset;
+        }
+        assertEquals(target, last);
+    }
+
+    @NonNull
+    private static byte[] readRecording(String name) {
+        InputStream input = GestureReplayerTest.class.getClassLoader().getResourceAsStream("gestures/" + name);
+        assertNotNull(name, input);
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                output.write(buffer, 0, count);
+            }
+            input.close();
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static final class OffsetRecorder extends SimpleOnPullExpandChangedListener {
+
+        private final List<Integer> mHeaderOffsets = new ArrayList<>();
+        private final List<Integer> mFooterOffsets = new ArrayList<>();
+        private int mReleasedOffset = -1;
+
+        @Override
+        public void onHeaderMoving(int orientation, float percent, int offset,
+                                   int heightOrWidth, int maxDragDistance) {
+            mHeaderOffsets.add(offset);
+        }
+
+        @Override
+        public void onFooterMoving(int orientation, float percent, int offset,
+                                   int heightOrWidth, int maxDragDistance) {
+            mFooterOffsets.add(offset);
+        }
+
+        @Override
+        public void onReleased(PullExpandLayout layout, int currentOffset) {
+            mReleasedOffset = Math.abs(currentOffset);
+        }
+    }
+}
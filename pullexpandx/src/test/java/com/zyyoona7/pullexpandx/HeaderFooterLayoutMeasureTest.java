@@ -0,0 +1,173 @@
+package com.zyyoona7.pullexpandx;
+
+import android.content.Context;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 重复测量时子 View 的测量次数
+ * MeasureSpec 不变并且子 View 没有请求重新布局时 View#measure 本身就会跳过 onMeasure，
+ * 所以通过 {@link MeasureCountingLayout} 统计 measureChildWithMargins 的调用次数
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class HeaderFooterLayoutMeasureTest {
+
+    private static final int MEASURE_PASSES = 1000;
+
+    private MeasureCountingLayout mLayout;
+    private MeasureCountingView mHeaderView;
+    private MeasureCountingView mContentView;
+    private MeasureCountingView mFooterView;
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.application;
+        mHeaderView = new MeasureCountingView(context);
+        mContentView = new MeasureCountingView(context);
+        mFooterView = new MeasureCountingView(context);
+        mLayout = PullExpandTestUtils.initLayout(new MeasureCountingLayout(context), HeaderFooterLayout.VERTICAL,
+                mHeaderView, mContentView, mFooterView);
+        resetMeasureCounts();
+    }
+
+    @Test
+    public void contentRequestLayoutMeasuresOnlyContent() {
+        //MeasureSpec 不变，只有 contentView 请求重新布局
+        for (int i = 0; i < MEASURE_PASSES; i++) {
+            mContentView.requestLayout();
+            measureAndLayout(PullExpandTestUtils.WIDTH, PullExpandTestUtils.HEIGHT);
+        }
+        assertEquals(MEASURE_PASSES, mLayout.getMeasureChildCount(mContentView));
+        assertEquals(0, mLayout.getMeasureChildCount(mHeaderView));
+        assertEquals(0, mLayout.getMeasureChildCount(mFooterView));
+        assertEquals(MEASURE_PASSES, mContentView.mMeasureCount);
+        assertEquals(0, mHeaderView.mMeasureCount);
+        assertEquals(0, mFooterView.mMeasureCount);
+    }
+
+    @Test
+    public void selfRequestLayoutSkipsHeaderAndFooter() {
+        //只有 PullExpandLayout 自身请求重新布局，会进入 onMeasure，但子 View 都不需要重新测量
+        for (int i = 0; i < MEASURE_PASSES; i++) {
+            mLayout.requestLayout();
+            measureAndLayout(PullExpandTestUtils.WIDTH, PullExpandTestUtils.HEIGHT);
+        }
+        assertEquals(MEASURE_PASSES, mLayout.mOnMeasureCount);
+        assertEquals(0, mLayout.getMeasureChildCount(mHeaderView));
+        assertEquals(0, mLayout.getMeasureChildCount(mFooterView));
+        assertEquals(0, mContentView.mMeasureCount);
+        assertEquals(0, mHeaderView.mMeasureCount);
+        assertEquals(0, mFooterView.mMeasureCount);
+    }
+
+    @Test
+    public void changedSpecMeasuresAllChildren() {
+        measureAndLayout(PullExpandTestUtils.WIDTH / 2, PullExpandTestUtils.HEIGHT);
+        assertEquals(1, mLayout.getMeasureChildCount(mContentView));
+        assertEquals(1, mLayout.getMeasureChildCount(mHeaderView));
+        assertEquals(1, mLayout.getMeasureChildCount(mFooterView));
+        assertEquals(1, mContentView.mMeasureCount);
+        assertEquals(1, mHeaderView.mMeasureCount);
+        assertEquals(1, mFooterView.mMeasureCount);
+        assertEquals(PullExpandTestUtils.WIDTH / 2, mHeaderView.getMeasuredWidth());
+        assertEquals(PullExpandTestUtils.WIDTH / 2, mFooterView.getMeasuredWidth());
+
+        //之后 MeasureSpec 不变时不再测量
+        for (int i = 0; i < MEASURE_PASSES; i++) {
+            mContentView.requestLayout();
+            measureAndLayout(PullExpandTestUtils.WIDTH / 2, PullExpandTestUtils.HEIGHT);
+        }
+        assertEquals(1, mLayout.getMeasureChildCount(mHeaderView));
+        assertEquals(1, mLayout.getMeasureChildCount(mFooterView));
+        assertEquals(1, mHeaderView.mMeasureCount);
+        assertEquals(1, mFooterView.mMeasureCount);
+    }
+
+    @Test
+    public void headerRequestLayoutMeasuresOnlyHeader() {
+        for (int i = 0; i < MEASURE_PASSES; i++) {
+            mHeaderView.requestLayout();
+            measureAndLayout(PullExpandTestUtils.WIDTH, PullExpandTestUtils.HEIGHT);
+        }
+        assertEquals(MEASURE_PASSES, mLayout.getMeasureChildCount(mHeaderView));
+        assertEquals(0, mLayout.getMeasureChildCount(mFooterView));
+        assertEquals(MEASURE_PASSES, mHeaderView.mMeasureCount);
+        //contentView 每次都会交给 measureChildWithMargins，但 MeasureSpec 不变时不会进入 onMeasure
+        assertEquals(0, mContentView.mMeasureCount);
+        assertEquals(0, mFooterView.mMeasureCount);
+    }
+
+    private void measureAndLayout(int width, int height) {
+        PullExpandTestUtils.measureAndLayout(mLayout, width, height);
+    }
+
+    private void resetMeasureCounts() {
+        mLayout.mOnMeasureCount = 0;
+        mLayout.mMeasureChildCounts.clear();
+        mHeaderView.mMeasureCount = 0;
+        mContentView.mMeasureCount = 0;
+        mFooterView.mMeasureCount = 0;
+    }
+
+    /**
+     * 记录 onMeasure 次数和每个子 View 调用 measureChildWithMargins 次数的 PullExpandLayout
+     */
+    private static final class MeasureCountingLayout extends PullExpandLayout {
+
+        private final Map<View, Integer> mMeasureChildCounts = new HashMap<>();
+        private int mOnMeasureCount = 0;
+
+        MeasureCountingLayout(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            mOnMeasureCount++;
+        }
+
+        @Override
+        protected void measureChildWithMargins(View child, int parentWidthMeasureSpec, int widthUsed,
+                                               int parentHeightMeasureSpec, int heightUsed) {
+            super.measureChildWithMargins(child, parentWidthMeasureSpec, widthUsed,
+                    parentHeightMeasureSpec, heightUsed);
+            mMeasureChildCounts.put(child, getMeasureChildCount(child) + 1);
+        }
+
+        int getMeasureChildCount(View child) {
+            Integer count = mMeasureChildCounts.get(child);
+            return count == null ? 0 : count;
+        }
+    }
+
+    /**
+     * 记录 onMeasure 次数的 View
+     */
+    private static final class MeasureCountingView extends View {
+
+        private int mMeasureCount = 0;
+
+        MeasureCountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            mMeasureCount++;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.zyyoona7.pullexpandx;
+
+import android.view.MotionEvent;
+
+import com.zyyoona7.pullexpandx.listener.OnPullExpandChangedListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PullExpandLayout#DISPATCH_MODE_EVERY_MOVE} 和 {@link PullExpandLayout#DISPATCH_MODE_TRANSITION} 的回调次数
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PullExpandLayoutDispatchModeTest {
+
+    //拖动的帧数
+    private static final int FRAMES = 10;
+    //每帧的 MOVE 事件数
+    private static final int MOVES_PER_FRAME = 4;
+
+    private PullExpandLayout mLayout;
+    private VirtualAnimationClock mClock;
+    private CountingListener mListener;
+    private long mEventTime;
+    private float mY;
+
+    @Before
+    public void setUp() {
+        mLayout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL);
+        mClock = new VirtualAnimationClock();
+        mLayout.setAnimationClock(mClock, mClock);
+        mListener = new CountingListener();
+        mLayout.addOnPullExpandChangedListener(mListener);
+    }
+
+    @Test
+    public void transitionModeCoalescesMovingIntoFrames() {
+        mLayout.setDispatchMode(PullExpandLayout.DISPATCH_MODE_TRANSITION);
+        startDrag();
+        int movingCount = 0;
+        for (int frame = 1; frame <= FRAMES; frame++) {
+            dragFrame(frame);
+            if (frame == 1) {
+                //状态变为 EXPANDING 时先立即回调一次移动距离，同一帧剩余的移动在帧回调中合并为一次
+                movingCount = 2;
+            } else {
+                movingCount++;
+            }
+            assertEquals(movingCount, mListener.mMovingCount);
+        }
+        //状态只在变化时回调一次
+        assertEquals(Arrays.asList(PullExpandLayout.STATE_EXPANDING), mListener.mStates);
+    }
+
+    @Test
+    public void everyMoveModeDispatchesEachMove() {
+        startDrag();
+        for (int frame = 1; frame <= FRAMES; frame++) {
+            dragFrame(frame);
+        }
+        //每个改变了偏移的 MOVE 事件都回调，比每帧一次多
+        assertTrue(mListener.mMovingCount > FRAMES + 1);
+        //每次回调 onXxMoving 时都同时回调状态
+        assertTrue(mListener.mStates.size() >= mListener.mMovingCount);
+    }
+
+    @Test
+    public void transitionModeDispatchesEachStateOnce() {
+        mLayout.setDispatchMode(PullExpandLayout.DISPATCH_MODE_TRANSITION);
+        mLayout.setHeaderExpanded(true, true);
+        mClock.runUntilIdle(1000);
+        assertEquals(Arrays.asList(PullExpandLayout.STATE_EXPANDING, PullExpandLayout.STATE_EXPANDED),
+                mListener.mStates);
+        //动画的每一帧最多回调一次 onXxMoving
+        long frames = mClock.currentTimeMillis() / VirtualAnimationClock.FRAME_INTERVAL_MS;
+        assertTrue(mListener.mMovingCount > 0);
+        assertTrue(mListener.mMovingCount <= frames + 1);
+    }
+
+    /**
+     * 按下并移动超过 touch slop，开始拖动
+     */
+    private void startDrag() {
+        mEventTime = 0;
+        mY = 400f;
+        dispatch(MotionEvent.ACTION_DOWN);
+        mEventTime += 4;
+        mY += 20f;
+        dispatch(MotionEvent.ACTION_MOVE);
+    }
+
+    /**
+     * 在一帧内分发 {@link #MOVES_PER_FRAME} 个 MOVE 事件，然后执行这一帧
+     *
+     * @param frame 帧序号，从 1 开始
+     */
+    private void dragFrame(int frame) {
+        for (int i = 0; i < MOVES_PER_FRAME; i++) {
+            mEventTime += 4;
+            mY += 3f;
+            dispatch(MotionEvent.ACTION_MOVE);
+        }
+        mClock.advanceTo(frame * VirtualAnimationClock.FRAME_INTERVAL_MS);
+    }
+
+    private void dispatch(int action) {
+        MotionEvent event = MotionEvent.obtain(0, mEventTime, action, PullExpandTestUtils.WIDTH / 2f, mY, 0);
+        mLayout.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    private static final class CountingListener implements OnPullExpandChangedListener {
+
+        private int mMovingCount = 0;
+        private final List<Integer> mStates = new ArrayList<>();
+
+        @Override
+        public void onHeaderMoving(int orientation, float percent, int offset,
+                                   int heightOrWidth, int maxDragDistance) {
+            mMovingCount++;
+        }
+
+        @Override
+        public void onFooterMoving(int orientation, float percent, int offset,
+                                   int heightOrWidth, int maxDragDistance) {
+            mMovingCount++;
+        }
+
+        @Override
+        public void onReleased(PullExpandLayout layout, int currentOffset) {
+        }
+
+        @Override
+        public void onHeaderStateChanged(PullExpandLayout layout, int state) {
+            mStates.add(state);
+        }
+
+        @Override
+        public void onFooterStateChanged(PullExpandLayout layout, int state) {
+            mStates.add(state);
+        }
+    }
+}
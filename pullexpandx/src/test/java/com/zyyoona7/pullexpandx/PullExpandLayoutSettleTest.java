@@ -0,0 +1,100 @@
+package com.zyyoona7.pullexpandx;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 通过 {@link VirtualAnimationClock} 逐帧驱动松手后的动画
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PullExpandLayoutSettleTest {
+
+    //ScrollerSettleEngine 的默认滚动时长
+    private static final long SCROLLER_DURATION = 300;
+
+    private PullExpandLayout mLayout;
+    private VirtualAnimationClock mClock;
+
+    @Before
+    public void setUp() {
+        mLayout = PullExpandTestUtils.createLayout(HeaderFooterLayout.VERTICAL);
+        mClock = new VirtualAnimationClock();
+        mLayout.setAnimationClock(mClock, mClock);
+    }
+
+    @Test
+    public void scrollerSettleFinishesAfterDuration() {
+        assertEquals(PullExpandLayout.SETTLE_MODE_SCROLLER, mLayout.getSettleMode());
+        mLayout.setHeaderExpanded(true, true);
+
+        mClock.advanceTo(SCROLLER_DURATION / 2);
+        int offset = mLayout.getScrollY();
+        assertTrue("offset=" + offset, offset < 0 && offset > -PullExpandTestUtils.EDGE_SIZE);
+        assertEquals(PullExpandLayout.STATE_EXPANDING, mLayout.getCurrentHeaderState());
+
+        //时长结束后的第一帧到达目标
+        mClock.advanceTo(SCROLLER_DURATION + VirtualAnimationClock.FRAME_INTERVAL_MS);
+        assertFalse(mClock.hasPendingFrames());
+        assertEquals(-PullExpandTestUtils.EDGE_SIZE, mLayout.getScrollY());
+        assertEquals(PullExpandLayout.STATE_EXPANDED, mLayout.getCurrentHeaderState());
+        assertTrue(mLayout.isHeaderExpanded());
+    }
+
+    @Test
+    public void scrollerSettleCollapses() {
+        mLayout.setHeaderExpanded(true, false);
+        mClock.runUntilIdle(SCROLLER_DURATION);
+        assertEquals(-PullExpandTestUtils.EDGE_SIZE, mLayout.getScrollY());
+
+        mLayout.setHeaderExpanded(false, true);
+        mClock.runUntilIdle(SCROLLER_DURATION * 2);
+        assertFalse(mClock.hasPendingFrames());
+        assertEquals(0, mLayout.getScrollY());
+        assertEquals(PullExpandLayout.STATE_COLLAPSED, mLayout.getCurrentHeaderState());
+    }
+
+    @Test
+    public void springSettleFinishesOnVirtualClock() {
+        mLayout.setSettleMode(PullExpandLayout.SETTLE_MODE_SPRING);
+        mLayout.setFooterExpanded(true, true);
+
+        mClock.advanceTo(VirtualAnimationClock.FRAME_INTERVAL_MS);
+        assertEquals(PullExpandLayout.STATE_EXPANDING, mLayout.getCurrentFooterState());
+
+        mClock.runUntilIdle(3000);
+        assertFalse(mClock.hasPendingFrames());
+        assertEquals(PullExpandTestUtils.EDGE_SIZE, mLayout.getScrollY());
+        assertEquals(PullExpandLayout.STATE_EXPANDED, mLayout.getCurrentFooterState());
+        assertTrue(mLayout.isFooterExpanded());
+    }
+
+    @Test
+    public void sameFramesProduceSameOffsets() {
+        int[] first = recordSettleOffsets();
+        mLayout.setHeaderExpanded(false, false);
+        mClock.runUntilIdle(SCROLLER_DURATION);
+        int[] second = recordSettleOffsets();
+        assertArrayEquals(first, second);
+    }
+
+    private int[] recordSettleOffsets() {
+        mLayout.setHeaderExpanded(true, true);
+        int frames = (int) (SCROLLER_DURATION / VirtualAnimationClock.FRAME_INTERVAL_MS) + 1;
+        int[] offsets = new int[frames];
+        long startTime = mClock.currentTimeMillis();
+        for (int i = 0; i < frames; i++) {
+            mClock.advanceTo(startTime + (i + 1) * VirtualAnimationClock.FRAME_INTERVAL_MS);
+            offsets[i] = mLayout.getScrollY();
+        }
+        return offsets;
+    }
+}